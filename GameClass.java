@@ -2,45 +2,91 @@ import javax.swing.*;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Random;
 import javax.swing.border.EmptyBorder;
 
+import game.core.CpuPolicy;
+import game.core.EyeBag;
+import game.core.EyePolicy;
 import game.core.GameEngine;
+import game.core.MctsPolicy;
+import game.core.SearchPolicy;
+import game.ui.AnimationClock.Animation;
+import game.ui.AssetCache;
+import game.ui.EyeStrip;
+import game.ui.ImageScaler;
+import game.ui.ImageView;
+import game.ui.OddsSampler;
+import game.ui.Preloader;
+import game.ui.ResizePipeline;
+import game.ui.RingLog;
+import game.ui.SpriteAtlas;
+import game.sim.GameJournal;
 
 public class GameClass extends JPanel {
 
     // ---- Engine ----
     private final GameEngine engine = new GameEngine("You", "CPU", new EngineListener(), 0);
+    private final Random cpuRng = new Random();
+    // -Deye.cpu (or Settings' difficulty, through setCpu) picks the CPU by EyePolicy name (e.g.
+    // hard, search20, first60); null is the default, CpuPolicy's table, fetched on first use so
+    // construction never waits for it. Each name is built once and kept in cpus, since an MctsPolicy
+    // holds a thread pool; close() shuts them down
+    private final Map<String, EyePolicy> cpus = new HashMap<>();
+    private EyePolicy cpuPolicy = cpuByName(System.getProperty("eye.cpu", "table"));
+
+    // ---- Journal: every game's seed and eye choices, for replaying disputed outcomes;
+    // -Deye.journal=false turns it off ----
+    private static final java.nio.file.Path JOURNAL_FILE =
+            java.nio.file.Path.of(System.getProperty("user.home"), ".eye-for-an-eye", "games.eyej");
+    private GameJournal journal = Boolean.parseBoolean(System.getProperty("eye.journal", "true"))
+            ? openJournal() : null; // null if off or it could not be opened
 
     // ---- HUD ----
     private final JLabel roundLbl = new JLabel("Round 1");
     private final JLabel userLbl = new JLabel("You: 0");
     private final JLabel cpuLbl = new JLabel("CPU: 0");
-    private final JTextArea log = new JTextArea(6, 36);
+    // your chances if you spend no more eyes, sampled off the EDT after every change and
+    // stopped the moment Roll or an eye is clicked; each open eye is rated first (under the strip)
+    private final JLabel oddsLbl = new JLabel(" ");
+    private final OddsSampler odds = new OddsSampler(this::showOdds, this::showAdvice, System.nanoTime());
+    private static final Color GAIN = new Color(120, 255, 120), LOSS = new Color(255, 130, 130);
+    // the searches are far too slow to play thousands of samples, so those use the table they approximate
+    private static final EyePolicy TABLE = (engine, self, rng) -> CpuPolicy.bestAgainstHold().choose(engine, self, rng);
+    // the last few hundred lines, one model update per round; -Deye.log.spill=true keeps older ones on disk
+    private static final java.nio.file.Path LOG_FILE =
+            java.nio.file.Path.of(System.getProperty("user.home"), ".eye-for-an-eye", "game.log");
+    private final RingLog log = new RingLog(Integer.getInteger("eye.log.lines", 500),
+            Boolean.getBoolean("eye.log.spill") ? LOG_FILE : null, /* roll at */ 1 << 20, /* keep */ 3);
+    private final JList<RingLog.Entry> logList = new JList<>(log);
     private final JButton rollBtn = new JButton("Roll");
     private final JButton resetBtn = new JButton("Reset");
 
     // === Eye strip (8 user eyes, closed by default) ===
-    private static final int NUM_EYES = 8;
-    private final JButton[] userEyeBtns = new JButton[NUM_EYES];
+    private static final int NUM_EYES = EyeBag.SLOTS;
+    // slot i shows the engine's eye slot i, so there is no separate UI copy of the bag
+    private final EyeStrip eyeStrip = new EyeStrip(EyeAnimator.atlas(), NUM_EYES, 2);
     private final EyeAnimator eyeAnim = new EyeAnimator();
 
-    // UI state for each eye slot
-    private final GameEngine.EffectKind[] eyeSlotKind = new GameEngine.EffectKind[NUM_EYES];
-    private final boolean[] eyeSlotOpen = new boolean[NUM_EYES];
+    // === Background and HMD, rebuilt off the EDT when the window is resized ===
+    private record Backdrop(BufferedImage background, BufferedImage hmd) { }
+    private final ResizePipeline<Backdrop> resizes;
 
     public GameClass() {
+        if (cpuPolicy == null)
+            CpuPolicy.warmUp(); // lookup table takes a few seconds; build it while the player reads the title screen
         setPreferredSize(new Dimension(1920, 1080)); // 1080p target
         setLayout(new BorderLayout());
 
         // ===== Background container (loads from assets/ when available) =====
-        JLabel background = new JLabel(loadBackgroundIcon());
+        // Both are built for the preferred size up front, then again off the EDT
+        // whenever the window settles at a new size (see resizes below)
+        Dimension initial = getPreferredSize();
+        int initialHmd = Math.min(initial.width, initial.height);
+        ImageView background = new ImageView(composeBackgroundWithTable(initial.width, initial.height));
         // Use a layered pane so we can draw a composed background (with table) and
         // place HUD/HMD/bottom as an overlay on top (keeps them visible and
         // interactive).
@@ -53,10 +99,7 @@ public class GameClass extends JPanel {
         overlay.setOpaque(false);
 
         // --- Center HMD image ---
-        ImageIcon hmdIcon = loadHMDIcon("HMD_smile.png", 300, 1000);
-        JLabel hmdLabel = new JLabel(hmdIcon);
-        hmdLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        hmdLabel.setVerticalAlignment(SwingConstants.CENTER);
+        ImageView hmdLabel = new ImageView(loadHMDImage("HMD_smile.png", initialHmd, initialHmd));
         final JPanel hmdContainer = new JPanel(new BorderLayout());
         hmdContainer.setOpaque(false);
         hmdContainer.setBorder(new EmptyBorder(0, 0, 0, 0));
@@ -66,49 +109,39 @@ public class GameClass extends JPanel {
         // ===== Top HUD =====
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 8));
         top.setOpaque(false);
-        for (JLabel l : new JLabel[] { roundLbl, userLbl, cpuLbl }) {
+        for (JLabel l : new JLabel[] { roundLbl, userLbl, cpuLbl, oddsLbl }) {
             l.setForeground(Color.WHITE);
         }
+        oddsLbl.setToolTipText("Your chances if you spend no more eyes, with a 95% margin");
         top.add(roundLbl);
         top.add(userLbl);
         top.add(cpuLbl);
+        top.add(oddsLbl);
         overlay.add(top, BorderLayout.NORTH);
 
         // ===== Bottom stack: Eyes row (NORTH) -> Log (CENTER) -> Buttons (SOUTH) =====
         JPanel bottom = new JPanel(new BorderLayout());
         bottom.setOpaque(false);
 
-        // Eyes row (8 eyes)
-        JPanel eyesRow = new JPanel(new GridLayout(1, NUM_EYES, 2, 0));
-        eyesRow.setOpaque(false);
-        for (int i = 0; i < NUM_EYES; i++) {
-            JButton b = new JButton();
-            styleEyeButton(b);
-            b.setEnabled(false);
-            // initially set a frame; the ComponentListener below will rescale it to fit
-            b.setIcon(eyeAnim.frameWhite(0));
-            final int idx = i;
-            b.addActionListener(new java.awt.event.ActionListener() {
-                public void actionPerformed(java.awt.event.ActionEvent e) {
-                    onClickUserEye(idx);
-                }
-            });
-            // center the icon and use a fixed preferred size to avoid clipping
-            b.setHorizontalAlignment(SwingConstants.CENTER);
-            b.setVerticalAlignment(SwingConstants.CENTER);
-            b.setPreferredSize(new Dimension(240, 240));
-            b.setMinimumSize(new Dimension(240, 240));
-            b.setMaximumSize(new Dimension(240, 240));
-            userEyeBtns[i] = b;
-            eyesRow.add(b);
-        }
-        bottom.add(eyesRow, BorderLayout.NORTH);
+        // Eyes row (8 eyes, painted by one component; closed and white until granted)
+        eyeStrip.setListener(this::onClickUserEye);
+        eyeStrip.setToolTipText("Change in your win chance from spending an eye now, against holding it or spending one next round");
+        bottom.add(eyeStrip, BorderLayout.NORTH);
 
         // Log (bottom-center)
-        log.setEditable(false);
-        log.setLineWrap(true);
-        log.setWrapStyleWord(true);
-        JScrollPane sc = new JScrollPane(log);
+        logList.setVisibleRowCount(6);
+        // fixed row height, so a batch costs no measuring of the other rows
+        logList.setPrototypeCellValue(new RingLog.Entry(0, 0, "Welcome. Click Roll to begin."));
+        log.addListDataListener(new javax.swing.event.ListDataListener() {
+            public void intervalAdded(javax.swing.event.ListDataEvent e) {
+                // later: this listener runs before the list's own, which resizes it for the new rows
+                int last = e.getIndex1();
+                SwingUtilities.invokeLater(() -> logList.ensureIndexIsVisible(last));
+            }
+            public void intervalRemoved(javax.swing.event.ListDataEvent e) { }
+            public void contentsChanged(javax.swing.event.ListDataEvent e) { }
+        });
+        JScrollPane sc = new JScrollPane(logList);
         sc.setOpaque(false);
         sc.getViewport().setOpaque(false);
         bottom.add(sc, BorderLayout.CENTER);
@@ -127,7 +160,17 @@ public class GameClass extends JPanel {
         layered.add(background, JLayeredPane.DEFAULT_LAYER);
         layered.add(overlay, JLayeredPane.PALETTE_LAYER);
 
-        // Resize handler: recompute composed background (with table) and rescale HMD
+        // Resize handler: lay out at once, stretching the current background and
+        // HMD as a preview; the composed background (with table) and rescaled HMD
+        // for the new size are built off the EDT once the resizing stops, and
+        // swapped in together
+        resizes = new ResizePipeline<>("resize-compose", 120,
+                (w, h) -> new Backdrop(composeBackgroundWithTable(w, h),
+                        loadHMDImage("HMD_smile.png", Math.min(w, h), Math.min(w, h))),
+                b -> {
+                    background.setImage(b.background());
+                    hmdLabel.setImage(b.hmd());
+                });
         Runnable rescaleAll = () -> {
             int w = layered.getWidth();
             int h = layered.getHeight();
@@ -135,11 +178,10 @@ public class GameClass extends JPanel {
                 return;
             background.setBounds(0, 0, w, h);
             overlay.setBounds(0, 0, w, h);
-            composeBackgroundWithTable(background);
             int size = (int) (Math.min(w, h));
-            ImageIcon icon = loadHMDIcon("HMD_smile.png", size, size);
-            hmdLabel.setIcon(icon);
-            hmdContainer.setBorder(new EmptyBorder(0, 0, 0, 0));
+            background.setTargetSize(w, h);
+            hmdLabel.setTargetSize(size, size);
+            resizes.request(w, h);
         };
         layered.addComponentListener(new java.awt.event.ComponentAdapter() {
             @Override
@@ -151,15 +193,22 @@ public class GameClass extends JPanel {
         layered.setBounds(0, 0, getWidth(), getHeight());
         background.setBounds(0, 0, getWidth(), getHeight());
         overlay.setBounds(0, 0, getWidth(), getHeight());
-        composeBackgroundWithTable(background);
         rescaleAll.run();
 
         // ===== Wiring =====
         rollBtn.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent e) {
+                odds.cancel(); // the CPU's search gets the cores to itself
                 cpuMaybeUseEyeBeforeRound(); // CPU may spend an eye (not shown)
                 boolean cont = engine.playRound(); // play step
+                journal(j -> {
+                    j.round(engine);
+                    if (!cont)
+                        j.endGame(engine);
+                    j.flush();
+                });
                 refreshHUD();
+                refreshOdds();
                 if (!cont)
                     rollBtn.setEnabled(false);
             }
@@ -167,158 +216,188 @@ public class GameClass extends JPanel {
 
         resetBtn.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent e) {
+                journal(j -> {
+                    if (j.inGame())
+                        j.endGame(engine); // abandoned mid-game
+                });
                 engine.reset();
+                journal(j -> j.startGame(engine.seed()));
                 clearAllUserEyeUI();
-                log.setText("");
+                log.clear();
                 rollBtn.setEnabled(true);
                 append("New game! First to reach " + GameEngine.TARGET + " triggers endgame.");
                 roundLbl.setText("Round 1");
                 refreshHUD();
+                refreshOdds();
             }
         });
 
         // Greet
         append("Welcome. Click Roll to begin.");
         refreshHUD();
+        refreshOdds();
     }
 
     // ----------------- Helpers -----------------
 
+    private interface JournalStep {
+        void run(GameJournal j) throws IOException;
+    }
+
+    // Ends the journal's game as abandoned and closes it, then the log's spill file and the CPUs' thread pools; Main calls this as the window closes
+    void close() {
+        journal(j -> {
+            if (j.inGame())
+                j.endGame(engine);
+            j.close();
+        });
+        journal = null;
+        log.close();
+        for (EyePolicy p : cpus.values())
+            if (p instanceof MctsPolicy mcts)
+                mcts.close();
+    }
+
+    private GameJournal openJournal() {
+        try {
+            java.nio.file.Files.createDirectories(JOURNAL_FILE.getParent());
+            GameJournal j = new GameJournal(JOURNAL_FILE);
+            j.startGame(engine.seed());
+            return j;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // the journal is best effort: after a write error the game carries on unrecorded
+    private void journal(JournalStep step) {
+        if (journal == null)
+            return;
+        try {
+            step.run(journal);
+        } catch (IOException e) {
+            journal = null;
+        }
+    }
+
     private void refreshHUD() {
         userLbl.setText("You: " + engine.user().total + " (last " + engine.user().lastFinalRoll + ")");
         cpuLbl.setText("CPU: " + engine.cpu().total + " (last " + engine.cpu().lastFinalRoll + ")");
     }
 
-    private void append(String s) {
-        log.append(s + "\n");
-        log.setCaretPosition(log.getDocument().getLength());
+    // Samples the position as it now stands; the label keeps the last estimate until the first batch is in
+    private void refreshOdds() {
+        EyePolicy cpu = cpuPolicy == null || cpuPolicy instanceof SearchPolicy || cpuPolicy instanceof MctsPolicy
+                ? TABLE : cpuPolicy;
+        odds.start(engine.snapshot(), cpu);
     }
 
-    // Load background ImageIcon from assets/ if present, otherwise fall back to
-    // project root.
-    private ImageIcon loadBackgroundIcon() {
-        String[] candidates = { "assets/casinobackground.png", "casinobackground.png" };
-        for (String p : candidates) {
-            File f = findExistingFile(p);
-            if (f != null) {
-                try {
-                    BufferedImage img = ImageIO.read(f);
-                    if (img != null)
-                        return new ImageIcon(img);
-                } catch (IOException ignored) {
-                }
-            }
+    private void showOdds(OddsSampler.Estimate e) {
+        oddsLbl.setText(String.format("Win %.0f%%  Tie %.0f%%  Loss %.0f%%  (±%.1f)",
+                e.win() * 100, e.tie() * 100, e.loss() * 100, e.margin() * 100));
+    }
+
+    // Each eye's gain in win chance over holding under its slot, the best one highlighted
+    private void showAdvice(OddsSampler.Advice a) {
+        for (int i = 0; i < NUM_EYES; i++) {
+            double gain = a.isEmpty() ? Double.NaN : a.gain()[i];
+            if (Double.isNaN(gain))
+                eyeStrip.setNote(i, null, null);
+            else
+                eyeStrip.setNote(i, String.format("%+.1f%%", gain * 100), gain > 0 ? GAIN : LOSS);
         }
-        // fallback: empty icon
-        return new ImageIcon();
+        eyeStrip.setHighlighted(a.best());
     }
 
-    // Scale an ImageIcon to fit within maxW x maxH, preserve aspect ratio, and
-    // center it
+    // queued; the whole round's lines reach the list together
+    private void append(String s) {
+        log.add(engine.roundIndex(), s);
+    }
 
-    // Try multiple candidate prefixes so image lookups work whether the app is run
-    // from
-    // the project folder or the workspace root. Returns first existing File or
-    // null.
-    private static File findExistingFile(String rel) {
-        String[] prefixes = { "", "Eye For An Eye/", "./Eye For An Eye/", "./" };
-        for (String pfx : prefixes) {
-            File f = new File(pfx + rel);
-            if (f.exists())
-                return f;
-        }
-        return null;
+    // Everything the constructor decodes, so the startup Preloader can do it
+    // off the EDT; the eye frames come as one atlas, read from its cache file.
+    static void preload(Preloader p) {
+        p.images("assets/HMD/HMD_smile.png");
+        // the table is only drawn over a background, and only when there is one
+        if (AssetCache.shared().locate("assets/casinobackground.png") != null
+                || AssetCache.shared().locate("casinobackground.png") != null)
+            p.images("assets/table.png");
+        p.task("eye atlas", EyeAnimator::atlas);
     }
 
+    // Scale an ImageIcon to fit within maxW x maxH, preserve aspect ratio, and
+    // center it
+
     // Load an HMD image (from assets/HMD or fallback) and scale to maxW x maxH
-    // preserving aspect ratio
-    private ImageIcon loadHMDIcon(String fileName, int maxW, int maxH) {
-        String rel = "assets/HMD/" + fileName;
-        File f = findExistingFile(rel);
-        if (f == null)
-            f = findExistingFile(fileName);
-        if (f == null)
-            return new ImageIcon();
-        try {
-            BufferedImage img = ImageIO.read(f);
-            if (img == null)
-                return new ImageIcon();
-            double scale = Math.min((double) maxW / img.getWidth(), (double) maxH / img.getHeight());
-            int nw = Math.max(1, (int) Math.round(img.getWidth() * scale));
-            int nh = Math.max(1, (int) Math.round(img.getHeight() * scale));
-            Image scaled = img.getScaledInstance(nw, nh, Image.SCALE_SMOOTH);
-            // center on a canvas the size of maxW x maxH
-            BufferedImage canvas = new BufferedImage(maxW, maxH, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g = canvas.createGraphics();
-            int x = (maxW - nw) / 2;
-            int y = (maxH - nh);
-            g.drawImage(scaled, x, y, null);
-            g.dispose();
-            return new ImageIcon(canvas);
-        } catch (IOException e) {
-            return new ImageIcon();
-        }
+    // preserving aspect ratio; null if there is none. Safe off the EDT.
+    private BufferedImage loadHMDImage(String fileName, int maxW, int maxH) {
+        BufferedImage img = AssetCache.shared().firstImage("assets/HMD/" + fileName, fileName);
+        if (img == null)
+            return null;
+        double scale = Math.min((double) maxW / img.getWidth(), (double) maxH / img.getHeight());
+        int nw = Math.max(1, (int) Math.round(img.getWidth() * scale));
+        int nh = Math.max(1, (int) Math.round(img.getHeight() * scale));
+        BufferedImage scaled = ImageScaler.shared().scaled(img, nw, nh);
+        // center on a canvas the size of maxW x maxH
+        BufferedImage canvas = new BufferedImage(maxW, maxH, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = canvas.createGraphics();
+        int x = (maxW - nw) / 2;
+        int y = (maxH - nh);
+        g.drawImage(scaled, x, y, null);
+        g.dispose();
+        return canvas;
     }
 
-    // Compose the table image onto the background icon so it appears behind the UI
-    private void composeBackgroundWithTable(JLabel background) {
+    // Compose the table image onto the background (from assets/ if present,
+    // otherwise the project root) so it appears behind the UI; null if there is
+    // no background. Safe off the EDT.
+    private BufferedImage composeBackgroundWithTable(int bw, int bh) {
         // find base background image
-        File bf = findExistingFile("assets/casinobackground.png");
-        if (bf == null)
-            bf = findExistingFile("casinobackground.png");
-        if (bf == null)
-            return;
-        try {
-            BufferedImage base = ImageIO.read(bf);
-            if (base == null)
-                return;
-            int bw = background.getWidth();
-            int bh = background.getHeight();
-            if (bw <= 0 || bh <= 0) {
-                background.setIcon(new ImageIcon(base));
-                return;
-            }
-            // scale base to fit background area
-            Image baseScaled = base.getScaledInstance(bw, bh, Image.SCALE_SMOOTH);
-            BufferedImage composed = new BufferedImage(bw, bh, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g = composed.createGraphics();
-            g.drawImage(baseScaled, 0, 0, null);
-
-            // find table image and draw it near bottom
-            File tf = findExistingFile("assets/table.png");
-            if (tf == null)
-                tf = findExistingFile("table.png");
-            if (tf != null) {
-                BufferedImage timg = ImageIO.read(tf);
-                if (timg != null) {
-                    double scale = (double) bw / (double) timg.getWidth();
-                    int th = Math.max(1, (int) Math.round(timg.getHeight() * scale));
-                    Image tScaled = timg.getScaledInstance(bw, th, Image.SCALE_SMOOTH);
-                    int y = bh - th; // draw flush to bottom
-                    g.drawImage(tScaled, 0, y, null);
-                }
-            }
-
-            g.dispose();
-            background.setIcon(new ImageIcon(composed));
-        } catch (IOException ignored) {
+        BufferedImage base = AssetCache.shared().firstImage("assets/casinobackground.png", "casinobackground.png");
+        if (base == null)
+            return null;
+        if (bw <= 0 || bh <= 0)
+            return base;
+        // scale base to fit background area
+        BufferedImage baseScaled = ImageScaler.shared().scaled(base, bw, bh);
+        BufferedImage composed = new BufferedImage(bw, bh, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = composed.createGraphics();
+        g.drawImage(baseScaled, 0, 0, null);
+
+        // find table image and draw it near bottom
+        BufferedImage timg = AssetCache.shared().firstImage("assets/table.png", "table.png");
+        if (timg != null) {
+            double scale = (double) bw / (double) timg.getWidth();
+            int th = Math.max(1, (int) Math.round(timg.getHeight() * scale));
+            BufferedImage tScaled = ImageScaler.shared().scaled(timg, bw, th);
+            int y = bh - th; // draw flush to bottom
+            g.drawImage(tScaled, 0, y, null);
         }
+
+        g.dispose();
+        return composed;
     }
 
-    private void styleEyeButton(JButton b) {
-        b.setBorderPainted(false);
-        b.setContentAreaFilled(false);
-        b.setFocusPainted(false);
-        b.setOpaque(false);
+    private EyePolicy cpuByName(String name) {
+        return name.equals("table") ? null : cpus.computeIfAbsent(name, EyePolicy::byName);
+    }
+
+    // Plays the CPU by EyePolicy name from the next round on
+    void setCpu(String name) {
+        cpuPolicy = cpuByName(name);
+        refreshOdds();
     }
 
     private void cpuMaybeUseEyeBeforeRound() {
         if (engine.isEndgame())
             return;
-        List<GameEngine.PendingEffect> list = engine.cpu().eyesView();
-        if (!list.isEmpty() && Math.random() < 0.6) {
-            var eff = engine.useFirstEye(engine.cpu());
+        // CpuPolicy waits only if the warm-up has not finished yet
+        EyePolicy policy = cpuPolicy != null ? cpuPolicy : CpuPolicy.bestAgainstHold();
+        int slot = policy.choose(engine, engine.cpu(), cpuRng);
+        if (slot >= 0) {
+            var eff = engine.useEyeInSlot(engine.cpu(), slot);
             if (eff != null) {
+                journal(j -> j.cpuEye(slot));
                 append("CPU used Eye: " + eff);
                 if (eff.kind == GameEngine.EffectKind.OPP_DIVIDE_TOTAL)
                     refreshHUD(); // red is immediate
@@ -326,70 +405,39 @@ public class GameClass extends JPanel {
         }
     }
 
-    // When an eye in slot is clicked → consume the matching effect from engine
+    // When an eye in slot is clicked → consume exactly that eye from the engine
     private void onClickUserEye(int slot) {
-        if (!eyeSlotOpen[slot])
-            return;
-
-        int idx = findMatchingEyeIndex(slot);
-        if (idx < 0)
-            return; // safety
-
-        var eff = engine.useEye(engine.user(), idx);
-        if (eff == null)
-            return;
+        odds.cancel();
+        var eff = engine.useEyeInSlot(engine.user(), slot);
+        if (eff == null) {
+            refreshOdds(); // nothing changed; carry on sampling
+            return; // empty slot, or endgame
+        }
+        journal(j -> j.userEye(slot));
 
         append("You used Eye: " + eff);
-        eyeAnim.flashEffect(userEyeBtns[slot], eff.kind);
 
-        // Animate close in that color, then mark closed
-        eyeAnim.playBlink(userEyeBtns[slot], colorFor(eff.kind));
-        eyeSlotOpen[slot] = false;
-        eyeSlotKind[slot] = null;
-        userEyeBtns[slot].setEnabled(false);
+        // Blink closed in the effect's color, then mark closed
+        eyeAnim.flashEffect(eyeStrip, slot, eff.kind);
+        eyeStrip.setOpen(slot, false);
 
         if (eff.kind == GameEngine.EffectKind.OPP_DIVIDE_TOTAL)
             refreshHUD(); // immediate effect
+        refreshOdds();
     }
 
-    /**
-     * Find the index of an eye with the same kind in the engine's queue.
-     * We fill UI left→right as we grant, and the engine stores eyes FIFO.
-     * If some earlier ones were spent, indices shift; so scan by kind.
-     */
-    private int findMatchingEyeIndex(int slot) {
-        GameEngine.EffectKind want = eyeSlotKind[slot];
-        if (want == null)
-            return -1;
-        List<GameEngine.PendingEffect> list = engine.user().eyesView();
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(i).kind == want)
-                return i;
-        }
-        return -1;
-    }
-
-    private void lightNextUserEye(GameEngine.EffectKind kind) {
-        for (int i = 0; i < NUM_EYES; i++) {
-            if (!eyeSlotOpen[i]) {
-                eyeSlotOpen[i] = true;
-                eyeSlotKind[i] = kind;
-                userEyeBtns[i].setEnabled(true);
-                // animate to open in the correct color and stay open
-                userEyeBtns[i].setIcon(eyeAnim.playOpen(userEyeBtns[i], colorFor(kind)));
-                eyeAnim.pulse(userEyeBtns[i], colorFor(kind), /* cycles */2, /* durationMs */700, /* amplitude */0.10);
-                return;
-            }
-        }
-        append("Your Eye bar is full (8). Consider using some!");
+    private void lightUserEye(int slot, GameEngine.EffectKind kind) {
+        eyeStrip.setOpen(slot, true);
+        // animate to open in the correct color, pulse, and stay open
+        eyeAnim.playOpenAndPulse(eyeStrip, slot, colorFor(kind), /* cycles */2, /* durationMs */700, /* amplitude */0.10);
     }
 
     private void clearAllUserEyeUI() {
         for (int i = 0; i < NUM_EYES; i++) {
-            eyeSlotOpen[i] = false;
-            eyeSlotKind[i] = null;
-            userEyeBtns[i].setEnabled(false);
-            userEyeBtns[i].setIcon(eyeAnim.frameWhite(0));
+            eyeStrip.cancel(i); // a pulse finishing later would reopen the eye
+            eyeStrip.setOpen(i, false);
+            eyeStrip.setScale(i, 1.0);
+            eyeStrip.setFrame(i, EyeAnimator.ColorKey.WHITE.ordinal(), 0);
         }
     }
 
@@ -416,13 +464,16 @@ public class GameClass extends JPanel {
         public void onRoll(GameEngine.PlayerState who, int base, int fin, GameEngine.PendingEffect used) {
             String name = (who == engine.user()) ? "You" : "CPU";
             append(name + " rolled " + base + " → " + fin + (used != null ? (" [used " + used + "]") : ""));
+            // the engine drops the eye a lower roll would earn when the bar is full
+            if (who == engine.cpu() && engine.user().lastFinalRoll < fin && engine.user().eyes().isFull())
+                append("Your Eye bar is full (8). Consider using some!");
         }
 
         @Override
-        public void onEyeGranted(GameEngine.PlayerState who, GameEngine.PendingEffect granted) {
+        public void onEyeGranted(GameEngine.PlayerState who, GameEngine.PendingEffect granted, int slot) {
             if (who == engine.user()) {
                 append("You rolled lower — Eye granted: " + granted);
-                lightNextUserEye(granted.kind);
+                lightUserEye(slot, granted.kind);
             } else {
                 append("CPU gained an Eye.");
             }
@@ -469,42 +520,38 @@ public class GameClass extends JPanel {
         // UI tuning
         private static final int TARGET_W = 240;
         private static final int TARGET_H = 240;
-        private static final int FPS = 24;
+        private static final int FPS = 24; // sprite frames; the clock itself ticks per display frame
         private static final float TINT_STRENGTH = 0.65f;
 
-        private final Map<ColorKey, List<ImageIcon>> cache = new ConcurrentHashMap<>();
+        // Every color x frame, tinted once and kept in one atlas image; the cache
+        // file is keyed by the frame PNGs and the recipe below, so editing either
+        // repaints it on the next start.
+        private static final java.nio.file.Path ATLAS_FILE =
+                java.nio.file.Path.of(System.getProperty("user.home"), ".eye-for-an-eye", "eye-atlas.bin");
 
-        EyeAnimator() {
-            cache.put(ColorKey.WHITE, loadFrames(null)); // base frames
+        private static final class Atlas {
+            static final SpriteAtlas EYES = SpriteAtlas.loadOrPaint(ATLAS_FILE,
+                    SpriteAtlas.key(recipe(), FRAME_FILES),
+                    ColorKey.values().length, FRAME_FILES.length, TARGET_W, TARGET_H, EyeAnimator::paintCell);
         }
 
-        ImageIcon frameWhite(int idx) {
-            List<ImageIcon> list = cache.get(ColorKey.WHITE);
-            if (list.isEmpty())
-                return new ImageIcon();
-            idx = Math.max(0, Math.min(idx, list.size() - 1));
-            return list.get(idx);
-        }
+        /** Loads (or paints and saves) the shared atlas; safe to call from any thread. */
+        static SpriteAtlas atlas() { return Atlas.EYES; }
 
-        /** Animate open (closed → open). Leaves final frame set (stays open). */
-        ImageIcon playOpen(JButton btn, ColorKey color) {
-            List<ImageIcon> frames = frames(color);
-            play(btn, frames, false);
-            return frames.get(frames.size() - 1);
+        /** Open (closed → open, final frame kept), then the gentle pulse; one animation, so nothing can start between them. */
+        void playOpenAndPulse(EyeStrip strip, int slot, ColorKey color, int cycles, int durationMs, double amplitude) {
+            strip.animate(slot, sequence(strip, slot, color, false)
+                    .then(pulseAnimation(strip, slot, cycles, durationMs, amplitude)));
         }
 
         /** Blink (open then close) in given color. */
-        void playBlink(JButton btn, ColorKey color) {
-            List<ImageIcon> frames = frames(color);
-            List<ImageIcon> seq = new ArrayList<>(frames);
-            for (int i = frames.size() - 2; i >= 0; i--)
-                seq.add(frames.get(i));
-            play(btn, seq, true);
+        void playBlink(EyeStrip strip, int slot, ColorKey color) {
+            strip.animate(slot, sequence(strip, slot, color, true));
         }
 
         /** When an Eye is used, flash in the effect color (blink). */
-        void flashEffect(JButton btn, GameEngine.EffectKind kind) {
-            playBlink(btn, switch (kind) {
+        void flashEffect(EyeStrip strip, int slot, GameEngine.EffectKind kind) {
+            playBlink(strip, slot, switch (kind) {
                 case OPP_DIVIDE_TOTAL -> ColorKey.RED;
                 case OPP_SUBTRACT_ROLL -> ColorKey.YELLOW;
                 case SELF_ADD_ROLL -> ColorKey.GREEN;
@@ -513,113 +560,87 @@ public class GameClass extends JPanel {
             });
         }
 
-        /** Returns the fully-open (last) frame for the given color. */
-        private ImageIcon openIcon(ColorKey color) {
-            List<ImageIcon> frames = frames(color);
-            return frames.get(frames.size() - 1);
-        }
-
-        /** Scale an icon by a factor (center-cropped to current target size). */
-        private static ImageIcon scaleIcon(ImageIcon src, double factor) {
-            int w = Math.max(1, (int) Math.round(src.getIconWidth() * factor));
-            int h = Math.max(1, (int) Math.round(src.getIconHeight() * factor));
-            Image scaled = src.getImage().getScaledInstance(w, h, Image.SCALE_SMOOTH);
-
-            // draw onto our target-size canvas so the button doesn’t jump
-            BufferedImage canvas = new BufferedImage(TARGET_W, TARGET_H, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g = canvas.createGraphics();
-            int x = (TARGET_W - w) / 2;
-            int y = (TARGET_H - h) / 2;
-            g.drawImage(scaled, x, y, null);
-            g.dispose();
-            return new ImageIcon(canvas);
-        }
-
         /**
          * Gentle pulse animation (grow/shrink) for granted eyes.
          * cycles: how many in/out pulses; durationMs: total time; amplitude: 0.08..0.15
-         * looks nice.
+         * looks nice. Each frame only changes the slot's scale, which repaints
+         * that slot; no image is made per frame.
          */
-        void pulse(JButton btn, ColorKey color, int cycles, int durationMs, double amplitude) {
-            final ImageIcon base = openIcon(color); // fully-open icon at target size
-            final int fps = Math.max(20, FPS); // keep it smooth
-            final int steps = Math.max(1, (durationMs * fps) / 1000);
-            final double twoPi = Math.PI * 2.0;
-            final int[] i = { 0 };
-
-            Timer t = new Timer(1000 / fps, e -> {
-                double progress = (double) i[0] / (double) steps; // 0..1
-                double wave = Math.sin(progress * twoPi * cycles); // -1..1
-                double scale = 1.0 + amplitude * wave; // 1±amp
-                btn.setIcon(scaleIcon(base, scale));
-                i[0]++;
-                if (i[0] > steps) {
-                    ((Timer) e.getSource()).stop();
-                    btn.setIcon(base); // snap back to clean open icon
+        private static Animation pulseAnimation(EyeStrip strip, int slot, int cycles, int durationMs, double amplitude) {
+            final long duration = durationMs * 1_000_000L;
+            return elapsed -> {
+                if (elapsed >= duration) {
+                    strip.setScale(slot, 1.0); // snap back to the clean open frame
+                    return false;
                 }
-            });
-            t.setRepeats(true);
-            t.start();
+                strip.setScale(slot, pulseScale((double) elapsed / duration, cycles, amplitude));
+                return true;
+            };
+        }
+
+        /** Scale at {@code progress} (0..1): 1 ± amplitude over {@code cycles} sine periods. */
+        static double pulseScale(double progress, int cycles, double amplitude) {
+            return 1.0 + amplitude * Math.sin(progress * Math.PI * 2.0 * cycles);
         }
 
         // --- internals ---
 
-        private List<ImageIcon> frames(ColorKey ck) {
-            return cache.computeIfAbsent(ck, key -> {
-                List<ImageIcon> base = cache.get(ColorKey.WHITE);
-                if (key == ColorKey.WHITE)
-                    return base;
-                Color tint = switch (key) {
-                    case RED -> Color.RED;
-                    case YELLOW -> Color.YELLOW;
-                    case GREEN -> Color.GREEN;
-                    case BLUE -> Color.BLUE;
-                    case PURPLE -> new Color(160, 32, 240);
-                    default -> Color.WHITE;
-                };
-                List<ImageIcon> tinted = new ArrayList<>(base.size());
-                for (ImageIcon icon : base)
-                    tinted.add(tintIcon(icon, tint, TINT_STRENGTH));
-                return tinted;
-            });
+        /**
+         * Steps the slot through the color's frames at the sprite frame rate,
+         * whatever rate the clock ticks at: closed to open, or for a blink
+         * closed to open and back.
+         */
+        private static Animation sequence(EyeStrip strip, int slot, ColorKey color, boolean blink) {
+            final long periodNanos = (blink ? Math.max(15, 1000 / FPS) : 1000 / FPS) * 1_000_000L;
+            final int n = FRAME_FILES.length;
+            final int steps = blink ? 2 * n - 1 : n;
+            return elapsed -> {
+                int i = (int) Math.min(steps - 1, elapsed / periodNanos);
+                strip.setScale(slot, 1.0);
+                strip.setFrame(slot, color.ordinal(), i < n ? i : 2 * n - 2 - i);
+                return i < steps - 1;
+            };
         }
 
-        private void play(JButton btn, List<ImageIcon> seq, boolean fast) {
-            final int periodMs = fast ? Math.max(15, 1000 / FPS) : 1000 / FPS;
-            final int[] i = { 0 };
-            Timer t = new Timer(periodMs, e -> {
-                btn.setIcon(seq.get(i[0]));
-                i[0]++;
-                if (i[0] >= seq.size())
-                    ((Timer) e.getSource()).stop();
-            });
-            t.setRepeats(true);
-            t.start();
+        private static Color tintFor(ColorKey key) {
+            return switch (key) {
+                case RED -> Color.RED;
+                case YELLOW -> Color.YELLOW;
+                case GREEN -> Color.GREEN;
+                case BLUE -> Color.BLUE;
+                case PURPLE -> new Color(160, 32, 240);
+                default -> Color.WHITE;
+            };
         }
 
-        private List<ImageIcon> loadFrames(Color tint) {
-            List<ImageIcon> out = new ArrayList<>(FRAME_FILES.length);
-            for (String name : FRAME_FILES) {
-                try {
-                    File f = findExistingFile(name);
-                    BufferedImage img = null;
-                    if (f != null && f.exists())
-                        img = ImageIO.read(f);
-                    if (img == null)
-                        img = makePlaceholderFrame();
-                    Image scaled = img.getScaledInstance(TARGET_W, TARGET_H, Image.SCALE_SMOOTH);
-                    ImageIcon base = new ImageIcon(scaled);
-                    out.add(tint == null ? base : tintIcon(base, tint, TINT_STRENGTH));
-                } catch (Exception ex) {
-                    BufferedImage ph = makePlaceholderFrame();
-                    ImageIcon placeholder = new ImageIcon(ph);
-                    out.add(tint == null ? placeholder : tintIcon(placeholder, tint, TINT_STRENGTH));
-                }
+        // everything paintCell depends on besides the PNGs; part of the atlas key
+        private static String recipe() {
+            StringBuilder sb = new StringBuilder("eyes v1 ").append(TARGET_W).append('x').append(TARGET_H)
+                    .append(" tint ").append(TINT_STRENGTH);
+            for (ColorKey ck : ColorKey.values())
+                sb.append(' ').append(ck).append('=').append(Integer.toHexString(tintFor(ck).getRGB()));
+            return sb.toString();
+        }
+
+        /** Atlas cell: frame {@code col} at button size, tinted with row's color (white rows untinted). */
+        private static void paintCell(Graphics2D g, int row, int col) {
+            BufferedImage frame;
+            try {
+                // only the button-size copy is kept, not the full-size original
+                frame = ImageScaler.shared().scaled(FRAME_FILES[col], TARGET_W, TARGET_H);
+            } catch (Exception ex) {
+                frame = null;
+            }
+            g.drawImage(frame != null ? frame : makePlaceholderFrame(), 0, 0, null);
+            ColorKey key = ColorKey.values()[row];
+            if (key != ColorKey.WHITE) {
+                g.setComposite(AlphaComposite.SrcAtop.derive(Math.max(0f, Math.min(1f, TINT_STRENGTH))));
+                g.setColor(tintFor(key));
+                g.fillRect(0, 0, TARGET_W, TARGET_H);
             }
-            return out;
         }
 
-        private BufferedImage makePlaceholderFrame() {
+        private static BufferedImage makePlaceholderFrame() {
             BufferedImage img = new BufferedImage(TARGET_W, TARGET_H, BufferedImage.TYPE_INT_ARGB);
             Graphics2D g = img.createGraphics();
             g.setColor(new Color(40, 40, 40, 255));
@@ -630,17 +651,5 @@ public class GameClass extends JPanel {
             g.dispose();
             return img;
         }
-
-        private static ImageIcon tintIcon(ImageIcon src, Color tint, float strength) {
-            int w = src.getIconWidth(), h = src.getIconHeight();
-            BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g = out.createGraphics();
-            g.drawImage(src.getImage(), 0, 0, null);
-            g.setComposite(AlphaComposite.SrcAtop.derive(Math.max(0f, Math.min(1f, strength))));
-            g.setColor(tint);
-            g.fillRect(0, 0, w, h);
-            g.dispose();
-            return new ImageIcon(out);
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+import javax.swing.*;
+import java.awt.*;
+
+// Shown while the Preloader decodes the images; paints nothing but a gradient,
+// a label and a progress bar, so it is up within a frame of the window opening.
+public class LoadingScreen extends JPanel {
+    private final JProgressBar bar = new JProgressBar();
+    private final JLabel status = new JLabel("Loading…", SwingConstants.CENTER);
+    private Runnable onFirstPaint;
+
+    public LoadingScreen() {
+        setLayout(new GridBagLayout());
+        Color neon = new Color(185, 150, 255);
+
+        JLabel title = new JLabel("House Always Wins", SwingConstants.CENTER);
+        title.setFont(new Font(Font.SERIF, Font.BOLD, 48));
+        title.setForeground(neon);
+
+        status.setFont(new Font(Font.SERIF, Font.PLAIN, 18));
+        status.setForeground(new Color(200, 200, 200));
+
+        bar.setPreferredSize(new Dimension(480, 14));
+        bar.setForeground(neon);
+        bar.setBackground(new Color(25, 25, 25));
+        bar.setBorderPainted(false);
+
+        JPanel col = new JPanel(new GridLayout(3, 1, 0, 16));
+        col.setOpaque(false);
+        col.add(title);
+        col.add(bar);
+        col.add(status);
+        add(col);
+    }
+
+    /** Runs once, right after the first paint (for the time-to-first-frame log). */
+    public void onFirstPaint(Runnable r) { onFirstPaint = r; }
+
+    public void progress(int done, int total, String name) {
+        bar.setMaximum(total);
+        bar.setValue(done);
+        status.setText("Loading " + name.substring(name.lastIndexOf('/') + 1) + " (" + done + "/" + total + ")");
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        int h = getHeight();
+        g2.setPaint(new GradientPaint(0, 0, new Color(10, 10, 12), 0, h, new Color(15, 5, 25)));
+        g2.fillRect(0, 0, getWidth(), h);
+        g2.dispose();
+        if (onFirstPaint != null) {
+            Runnable r = onFirstPaint;
+            onFirstPaint = null;
+            SwingUtilities.invokeLater(r);              // after this paint has reached the screen
+        }
+    }
+}
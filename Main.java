@@ -2,9 +2,23 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+
+import game.core.CpuPolicy;
+import game.ui.Preloader;
 
 public class Main {
     public static void main(String[] args) {
+        if (System.getProperty("eye.cpu", "table").equals("table"))
+            CpuPolicy.warmUp(); // the CPU's lookup table builds alongside the images
+
+        // decode every screen's images off the EDT while the splash is up
+        Preloader preload = new Preloader();
+        StartScreen.preload(preload);
+        GameClass.preload(preload);
+
         SwingUtilities.invokeLater(() -> {
             JFrame f = new JFrame("House Always Wins");
             f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -15,28 +29,66 @@ public class Main {
             CardLayout cards = new CardLayout();
             JPanel container = new JPanel(cards);
 
-            // --- Create screens ---
-            StartScreen start = new StartScreen(
-                new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "game"); } },
-                new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "settings"); } },
-                new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "credits"); } }
-            );
+            // --- Splash first, so the window paints within a frame ---
+            LoadingScreen loading = new LoadingScreen();
+            loading.onFirstPaint(() -> log("first frame"));
+            container.add(loading, "loading");
+            f.setContentPane(container);
+            f.setVisible(true);
+
+            long t0 = System.nanoTime();
+            preload.start(loading::progress).thenRun(() -> SwingUtilities.invokeLater(() -> {
+                log(String.format("%d assets decoded in %d ms on %d threads", preload.total(),
+                        (System.nanoTime() - t0) / 1_000_000, preload.threads()));
 
-            GameClass game = new GameClass();
-            Settings settings = new Settings(new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "start"); } });
-            Credits credits = new Credits(new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "start"); } });
+                // --- Create screens ---
+                // The game screen is built the first time its card is shown
+                GameClass[] game = { null };
+                // the CPU picked in Settings (-Deye.cpu until then)
+                String[] cpu = { System.getProperty("eye.cpu", "table") };
+                StartScreen start = new StartScreen(
+                    new ActionListener() { public void actionPerformed(ActionEvent e) {
+                        if (game[0] == null) {
+                            long t = System.nanoTime();
+                            game[0] = new GameClass();
+                            game[0].setCpu(cpu[0]);
+                            f.addWindowListener(new WindowAdapter() {
+                                @Override public void windowClosing(WindowEvent e) { game[0].close(); }
+                            });
+                            container.add(game[0], "game");
+                            log(String.format("game screen built in %d ms", (System.nanoTime() - t) / 1_000_000));
+                        }
+                        cards.show(container, "game");
+                    } },
+                    new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "settings"); } },
+                    new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "credits"); } }
+                );
+                start.onFirstPaint(() -> log("title screen"));
 
-            // --- Add them to the card container ---
-            container.add(start, "start");
-            container.add(game, "game");
-            container.add(settings, "settings");
-            container.add(credits, "credits");
+                Settings settings = new Settings(
+                    new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "start"); } },
+                    cpu[0],
+                    new ActionListener() { public void actionPerformed(ActionEvent e) {
+                        cpu[0] = e.getActionCommand();
+                        if (game[0] != null) game[0].setCpu(cpu[0]);
+                    } }
+                );
+                Credits credits = new Credits(new ActionListener() { public void actionPerformed(ActionEvent e) { cards.show(container, "start"); } });
 
-            f.setContentPane(container);
-            f.setVisible(true);
+                // --- Add them to the card container ---
+                container.add(start, "start");
+                container.add(settings, "settings");
+                container.add(credits, "credits");
 
-            // Start with the start screen
-            cards.show(container, "start");
+                // Swap the splash for the start screen
+                cards.show(container, "start");
+                container.remove(loading);
+            }));
         });
     }
+
+    // startup milestones, timed from JVM start
+    private static void log(String what) {
+        System.out.println("[Startup] " + what + " at " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+    }
 }
@@ -3,7 +3,13 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 
 public class Settings extends JPanel {
-    public Settings(ActionListener onClick) {
+    /**
+     * CPU difficulties, as EyePolicy names; the selected one is sent as the action command.
+     * table, the default, is CpuPolicy's precomputed best reply to a user who holds every eye.
+     */
+    static final String[] DIFFICULTIES = { "easy", "normal", "hard", "table" };
+
+    public Settings(ActionListener onClick, String difficulty, ActionListener onDifficulty) {
         setPreferredSize(new Dimension(960, 540));
         setLayout(new BorderLayout());
         Color neon = new Color(185, 150, 255);
@@ -27,8 +33,45 @@ public class Settings extends JPanel {
         label.setFont(new Font(Font.SERIF, Font.BOLD, 24));
         label.setForeground(neon);
 
+        // --- CPU difficulty ---
+        JPanel levels = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 12));
+        levels.setOpaque(false);
+        JLabel cpu = new JLabel("CPU:");
+        cpu.setFont(new Font(Font.SERIF, Font.BOLD, 20));
+        cpu.setForeground(neon);
+        levels.add(cpu);
+        ButtonGroup group = new ButtonGroup();
+        for (String level : DIFFICULTIES) {
+            JToggleButton b = new JToggleButton(level.toUpperCase());
+            b.setActionCommand(level);
+            b.setSelected(level.equals(difficulty));
+            b.setFocusPainted(false);
+            b.setFont(b.getFont().deriveFont(Font.BOLD, 16f));
+            // the look and feel's pressed fill is left out; the choice shows in the text and border
+            b.setContentAreaFilled(false);
+            b.addItemListener(e -> markSelected(b, neon));
+            markSelected(b, neon);
+            b.addActionListener(onDifficulty);
+            group.add(b);
+            levels.add(b);
+        }
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.setOpaque(false);
+        south.add(levels, BorderLayout.NORTH);
+        south.add(back, BorderLayout.SOUTH);
+
         add(label, BorderLayout.CENTER);
-        add(back, BorderLayout.SOUTH);
+        add(south, BorderLayout.SOUTH);
+    }
+
+    private static void markSelected(JToggleButton b, Color neon) {
+        int line = b.isSelected() ? 3 : 1;
+        b.setForeground(b.isSelected() ? neon : Color.WHITE);
+        b.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(160, 130, 255), line),
+                BorderFactory.createEmptyBorder(9 - line, 17 - line, 9 - line, 17 - line)
+        ));
     }
 
     @Override
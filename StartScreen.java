@@ -2,9 +2,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
+
+import game.ui.AssetCache;
+import game.ui.ImageScaler;
+import game.ui.Preloader;
 
 public class StartScreen extends JPanel {
 
@@ -28,6 +29,15 @@ public class StartScreen extends JPanel {
     private static final boolean DEBUG_SLOTS = false;
 
     private BufferedImage bg, playDie, settingsDie, creditsDie;
+    private Runnable onFirstPaint;
+
+    // background and dice composed once per panel size, in the screen's format,
+    // so a repaint is one blit Java2D can keep in video memory
+    private BufferedImage composed;
+
+    // paint timings; -Deye.paintStats=true prints them each time the screen is left
+    private static final boolean PRINT_PAINT_STATS = Boolean.getBoolean("eye.paintStats");
+    private long paints, paintNanos, maxPaintNanos, composes, composeNanos;
 
     // invisible buttons that sit on top of the dice
     private final JButton playBtn     = new JButton();
@@ -72,6 +82,9 @@ public class StartScreen extends JPanel {
                 revalidate();
                 repaint();
             }
+            @Override public void componentHidden(java.awt.event.ComponentEvent e) {
+                if (PRINT_PAINT_STATS && paints > 0) System.out.println("[StartScreen] " + paintStats());
+            }
         });
     }
 
@@ -112,12 +125,38 @@ public class StartScreen extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g.create();
+        long t0 = System.nanoTime();
+        int w = getWidth(), h = getHeight();
+        if (w <= 0 || h <= 0) return;
+        if (composed == null || composed.getWidth() != w || composed.getHeight() != h) {
+            if (composed != null) composed.flush();
+            composed = compose(w, h);
+            composes++;
+            composeNanos += System.nanoTime() - t0;
+        }
+        g.drawImage(composed, 0, 0, null);
+
+        long took = System.nanoTime() - t0;
+        paints++;
+        paintNanos += took;
+        if (took > maxPaintNanos) maxPaintNanos = took;
+        if (onFirstPaint != null) {
+            Runnable r = onFirstPaint;
+            onFirstPaint = null;
+            SwingUtilities.invokeLater(r);
+        }
+    }
+
+    // everything the title screen shows, at w x h
+    private BufferedImage compose(int w, int h) {
+        BufferedImage img = ImageScaler.compatible(w, h, Transparency.OPAQUE);
+        Graphics2D g2 = img.createGraphics();
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, w, h);
         g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
-        // draw background stretched to panel
-        if (bg != null) g2.drawImage(bg, 0, 0, getWidth(), getHeight(), null);
+        // draw background stretched to panel (scaled once per panel size)
+        if (bg != null) g2.drawImage(ImageScaler.shared().scaled(bg, w, h), 0, 0, null);
 
         // draw dice centered within their slots (with padding)
         drawCentered(g2, playDie,     shrink(toPixels(SLOT_PLAY_F),     SLOT_PAD));
@@ -132,6 +171,13 @@ public class StartScreen extends JPanel {
         }
 
         g2.dispose();
+        return img;
+    }
+
+    /** Paints so far, their average and worst time, and how many of them had to compose the screen first. */
+    public String paintStats() {
+        return String.format("%d paints, %.3f ms avg / %.3f ms max per frame; %d composes (%.1f ms)",
+                paints, paints == 0 ? 0 : paintNanos / 1e6 / paints, maxPaintNanos / 1e6, composes, composeNanos / 1e6);
     }
 
     private static Rectangle shrink(Rectangle r, int pad) {
@@ -139,9 +185,9 @@ public class StartScreen extends JPanel {
                 Math.max(1, r.width - 2 * pad), Math.max(1, r.height - 2 * pad));
     }
 
-    private static void drawCentered(Graphics2D g2, Image img, Rectangle slot) {
+    private static void drawCentered(Graphics2D g2, BufferedImage img, Rectangle slot) {
         if (img == null) return;
-        int iw = img.getWidth(null), ih = img.getHeight(null);
+        int iw = img.getWidth(), ih = img.getHeight();
         if (iw <= 0 || ih <= 0) return;
 
         double sx = slot.width  / (double) iw;
@@ -153,25 +199,22 @@ public class StartScreen extends JPanel {
         int x = slot.x + (slot.width  - w) / 2;
         int y = slot.y + (slot.height - h) / 2;
 
-        g2.drawImage(img, x, y, w, h, null);
+        g2.drawImage(ImageScaler.shared().scaled(img, w, h), x, y, null);
+    }
+
+    // everything the constructor loads, so the startup Preloader can decode it first
+    static void preload(Preloader p) {
+        p.images(BG_NAME, PLAY_NAME, SETTINGS_NAME, CREDITS_NAME);
     }
 
-    // robust loader: classpath first, then file fallback
+    // runs once, right after the first paint (for the time-to-first-frame log)
+    public void onFirstPaint(Runnable r) { onFirstPaint = r; }
+
+    // shared loader (classpath first, then file fallback), decoded once per run
     private static BufferedImage loadImage(String name) {
-        try {
-            try (InputStream in = StartScreen.class.getResourceAsStream("/" + name)) {
-                if (in != null) return ImageIO.read(in);
-            }
-            try (InputStream in = StartScreen.class.getResourceAsStream(name)) {
-                if (in != null) return ImageIO.read(in);
-            }
-            File f = new File(name);
-            if (f.exists()) return ImageIO.read(f);
-            System.err.println("[StartScreen] Image not found: " + name);
-        } catch (Exception ex) {
-            System.err.println("[StartScreen] Failed to load " + name + " -> " + ex);
-        }
-        return null;
+        BufferedImage img = AssetCache.shared().image(name);
+        if (img == null) System.err.println("[StartScreen] Image not found: " + name);
+        return img;
     }
 
     // fractional rect holder
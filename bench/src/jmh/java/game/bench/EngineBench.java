@@ -0,0 +1,95 @@
+package game.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.core.EyeBag;
+import game.core.GameEngine;
+import game.core.StateKey;
+
+/**
+ * GameEngine's per-round paths with no listener, as the simulator and solver
+ * drive them. useEye and eyesView start from a restored position holding a
+ * full user bag; restore is measured on its own so it can be subtracted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBench {
+
+    private static final MethodHandle ROLL_ONCE;
+    static {
+        try {
+            ROLL_ONCE = MethodHandles.privateLookupIn(GameEngine.class, MethodHandles.lookup())
+                    .findVirtual(GameEngine.class, "rollOnce", MethodType.methodType(int.class, GameEngine.PlayerState.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private GameEngine engine;
+    /** Round 3, 10:12, user holding one eye of each kind in slots 0..4 plus three more. */
+    private long fullBag;
+
+    @Setup
+    public void setup() {
+        engine = new GameEngine("You", "CPU", null, 2025);
+        int slots = 0;
+        for (int s = EyeBag.SLOTS - 1; s >= 0; s--) slots = slots * 6 + 1 + s % 5;
+        fullBag = StateKey.normal(3, 10, 12, slots, 0, 0, 0);
+    }
+
+    @Benchmark
+    public int playRound() {
+        if (!engine.playRound()) engine.reset();
+        return engine.user().total;
+    }
+
+    @Benchmark
+    public int rollOnce() throws Throwable {
+        return (int) ROLL_ONCE.invokeExact(engine, engine.user());
+    }
+
+    @Benchmark
+    public GameEngine.PendingEffect randomEffect() {
+        return engine.randomEffect();
+    }
+
+    @Benchmark
+    public long restore() {
+        engine.restore(fullBag);
+        return engine.user().eyeCount();
+    }
+
+    @Benchmark
+    public GameEngine.PendingEffect useEye() {
+        engine.restore(fullBag);
+        return engine.useEye(engine.user(), 3);
+    }
+
+    @Benchmark
+    public int eyesView() {
+        engine.restore(fullBag);
+        List<GameEngine.PendingEffect> eyes = engine.user().eyesView();
+        int sum = 0;
+        for (int i = 0; i < eyes.size(); i++) sum += eyes.get(i).magnitude;
+        return sum;
+    }
+}
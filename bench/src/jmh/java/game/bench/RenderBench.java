@@ -0,0 +1,151 @@
+package game.bench;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.core.CpuPolicy;
+import game.ui.EyeStrip;
+import game.ui.SpriteAtlas;
+
+/**
+ * The image paths the screens run: GameClass's HMD load, EyeAnimator's atlas cell paint (a tinted frame, what a cold
+ * atlas costs per cell) and one whole pulse (every tick's repaint of the
+ * pulsing slot of the EyeStrip; with -prof gc, gc.alloc.rate.norm is the
+ * bytes one pulse allocates), and StartScreen's paint into an offscreen
+ * Graphics2D, both the steady state (one blit of the composed screen) and a
+ * paint after a resize, which composes it again; tear-down prints
+ * StartScreen's own paint stats. The screens sit in the
+ * default package, so they are reached through private method handles. Headless, and with
+ * user.home pointed into the build directory so GameClass's journal stays out
+ * of the real one. Run from the repository root (the images are read from
+ * the working directory). GameClass's background compose is not measured:
+ * the tree ships no casinobackground.png, so it would only time its early
+ * return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Duser.home=bench/build/home" })
+public class RenderBench {
+
+    /** Frames in one pulse as GameClass runs it: 700 ms on the animation clock at 60 fps. */
+    private static final int PULSE_STEPS = 700 * 60 / 1000;
+
+    private MethodHandle loadHMDImage, paintCell, paintComponent;
+    private MethodHandle pulseScale, paintStats;
+    private EyeStrip strip;
+    private final Rectangle slot = new Rectangle();
+    private Object gamePanel;
+    private JComponent start;
+    private BufferedImage frame;
+    private Graphics2D frameGraphics;
+    private BufferedImage cell;
+
+    @Setup
+    public void setup() throws Throwable {
+        if (!new File("assets/eyes").isDirectory())
+            throw new IllegalStateException("run the benchmarks from the repository root");
+        CpuPolicy.bestAgainstHold(); // GameClass starts building it; finish before measuring
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Class<?> gameClass = Class.forName("GameClass");
+        Class<?> animator = Class.forName("GameClass$EyeAnimator");
+        Class<?> startScreen = Class.forName("StartScreen");
+        MethodHandles.Lookup gameLookup = MethodHandles.privateLookupIn(gameClass, lookup);
+        MethodHandles.Lookup animLookup = MethodHandles.privateLookupIn(animator, lookup);
+        MethodHandles.Lookup startLookup = MethodHandles.privateLookupIn(startScreen, lookup);
+
+        loadHMDImage = gameLookup.findVirtual(gameClass, "loadHMDImage",
+                MethodType.methodType(BufferedImage.class, String.class, int.class, int.class));
+        paintCell = animLookup.findStatic(animator, "paintCell",
+                MethodType.methodType(void.class, Graphics2D.class, int.class, int.class));
+        pulseScale = animLookup.findStatic(animator, "pulseScale",
+                MethodType.methodType(double.class, double.class, int.class, double.class));
+        SpriteAtlas atlas = (SpriteAtlas) animLookup.findStatic(animator, "atlas", MethodType.methodType(SpriteAtlas.class)).invoke();
+        strip = new EyeStrip(atlas, 8, 2);
+        strip.setSize(strip.getPreferredSize());
+        strip.setOpen(0, true);
+        strip.setFrame(0, 3, atlas.cols() - 1);  // GREEN row, fully open frame
+        strip.slotBounds(0, slot);
+        paintComponent = startLookup.findVirtual(startScreen, "paintComponent",
+                MethodType.methodType(void.class, Graphics.class));
+        paintStats = startLookup.findVirtual(startScreen, "paintStats", MethodType.methodType(String.class));
+
+        gamePanel = gameClass.getConstructor().newInstance();
+        start = (JComponent) startScreen.getConstructors()[0].newInstance(null, null, null);
+        start.setSize(1920, 1080);
+
+        frame = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_ARGB);
+        frameGraphics = frame.createGraphics();
+        cell = new BufferedImage(240, 240, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        frameGraphics.dispose();
+        // StartScreen's own timing of the paints above, next to JMH's
+        System.out.println("StartScreen: " + (String) paintStats.invoke(start));
+    }
+
+    @Benchmark
+    public BufferedImage loadHMDImage() throws Throwable {
+        return (BufferedImage) loadHMDImage.invoke(gamePanel, "HMD_smile.png", 1080, 1080);
+    }
+
+    @Benchmark
+    public BufferedImage paintAtlasCell() throws Throwable {
+        Graphics2D g = cell.createGraphics();
+        paintCell.invoke(g, 3, 6);  // GREEN row, fully open frame
+        g.dispose();
+        return cell;
+    }
+
+    @Benchmark
+    public BufferedImage pulse() throws Throwable {
+        for (int i = 0; i <= PULSE_STEPS; i++) {
+            strip.setScale(0, (double) pulseScale.invokeExact((double) i / PULSE_STEPS, 2, 0.10));
+            Graphics g = frameGraphics.create();
+            g.clipRect(slot.x, slot.y, slot.width, slot.height);  // the slot's dirty rectangle, as RepaintManager clips it
+            strip.paint(g);
+            g.dispose();
+        }
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage startScreenPaint() throws Throwable {
+        paintComponent.invoke(start, (Graphics) frameGraphics);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage startScreenResize() throws Throwable {
+        // alternate between two sizes so every paint composes; both scaled backgrounds stay in ImageScaler
+        start.setSize(start.getWidth() == 1920 ? 1919 : 1920, 1080);
+        paintComponent.invoke(start, (Graphics) frameGraphics);
+        return frame;
+    }
+}
@@ -0,0 +1,80 @@
+package game.bench;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.ui.ImageScaler;
+
+/**
+ * The old scaling path against ImageScaler on the two big screen images.
+ * getScaledInstance is lazy, so its benchmark draws the result into a
+ * BufferedImage, which is when the area-averaging work actually happens (and
+ * what the screens paid on every draw). cached is the window coming back to a
+ * size it has been at before. Run from the repository root.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ScaleBench {
+
+    @Param({ "assets/titlescreenfull.png", "assets/table.png" })
+    public String image;
+
+    @Param({ "1280x720", "1920x1080" })
+    public String size;
+
+    private BufferedImage src;
+    private int w, h;
+    private ImageScaler scaler;
+
+    @Setup
+    public void setup() throws Exception {
+        src = ImageIO.read(new File(image));
+        if (src == null) throw new IllegalStateException("run the benchmarks from the repository root");
+        String[] wh = size.split("x");
+        w = Integer.parseInt(wh[0]);
+        h = Integer.parseInt(wh[1]);
+        scaler = new ImageScaler(64L << 20);
+        scaler.scaled(src, w, h);
+    }
+
+    @Benchmark
+    public BufferedImage scaledInstance() {
+        Image lazy = src.getScaledInstance(w, h, Image.SCALE_SMOOTH);
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.drawImage(lazy, 0, 0, null);
+        g.dispose();
+        return out;
+    }
+
+    @Benchmark
+    public BufferedImage progressive() {
+        return ImageScaler.scale(src, w, h);
+    }
+
+    @Benchmark
+    public BufferedImage cached() {
+        return scaler.scaled(src, w, h);
+    }
+}
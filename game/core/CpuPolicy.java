@@ -0,0 +1,94 @@
+package game.core;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * The CPU's eye choice as a lookup table: for every position the CPU can face
+ * when Roll is pressed (both totals, the CPU's bag, and whatever the user has
+ * just queued) the table holds the best eye to spend, or none. The table comes
+ * from value iteration over the engine's rules (GameSolver.bestCpu).
+ *
+ * "Best" is the best reply to a user who never spends an eye: that is the user
+ * the table is solved against, so it is optimal against a holding user only.
+ * Against a user who does spend it is a strong heuristic (SearchPolicy and
+ * MctsPolicy look ahead instead). The user's bag is never read, so a decision
+ * depends only on what the CPU can actually see.
+ *
+ * 441 totals * 1287 bags * 8 queued-modifier combinations, one nibble each
+ * (0 = hold, kind ordinal + 1 otherwise): about 2.3 MB, built once in a few
+ * seconds, after which every decision is a single array read.
+ */
+public final class CpuPolicy implements EyePolicy {
+
+    private static final int T = GameEngine.TARGET;
+    /** User's modifier (NEXT_NONE..NEXT_SUB) x whether the user queued a yellow on the CPU. */
+    private static final int NEXT_COMBOS = 8;
+
+    private final byte[] table;
+
+    private CpuPolicy(GameSolver solver) {
+        int entries = T * T * GameSolver.BAGS * NEXT_COMBOS;
+        table = new byte[(entries + 1) / 2];
+        // one user total per task; a row is an even number of entries, so rows never share a byte
+        IntStream.range(0, T).parallel().forEach(u -> {
+            double[] scratch = new double[2];
+            for (int c = 0; c < T; c++) {
+                for (int r = 0; r < GameSolver.BAGS; r++) {
+                    if (GameSolver.size(GameSolver.bagAt(r)) == 0) continue; // nothing to spend: hold (0)
+                    for (int n = 0; n < NEXT_COMBOS; n++) {
+                        int kind = solver.bestCpuEye(u, c, 0, r, n >> 1,
+                                (n & 1) != 0 ? GameSolver.NEXT_SUB : GameSolver.NEXT_NONE, scratch);
+                        put(((u * T + c) * GameSolver.BAGS + r) * NEXT_COMBOS + n, kind + 1);
+                    }
+                }
+            }
+        });
+    }
+
+    private void put(int i, int v) { table[i >> 1] |= (byte) (v << ((i & 1) * 4)); }
+
+    private int get(int i) { return (table[i >> 1] >> ((i & 1) * 4)) & 15; }
+
+    private static final class Holder {
+        static final CpuPolicy AGAINST_HOLD = new CpuPolicy(GameSolver.bestCpu(GameSolver.Strategy.HOLD));
+    }
+
+    /**
+     * The shared table, the CPU's best reply to a user who holds; the first call
+     * builds it (a few seconds), see {@link #warmUp}.
+     */
+    public static CpuPolicy bestAgainstHold() { return Holder.AGAINST_HOLD; }
+
+    private static final AtomicBoolean WARMING = new AtomicBoolean();
+
+    /** Starts building the shared table on a daemon thread so the first decision does not wait; later calls do nothing. */
+    public static void warmUp() {
+        if (!WARMING.compareAndSet(false, true)) return;
+        Thread t = new Thread(CpuPolicy::bestAgainstHold, "cpu-policy-build");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Best eye for the CPU, as an EffectKind ordinal, or -1 to hold.
+     * {@code userNext} is the user's queued modifier (GameSolver.NEXT_*),
+     * {@code cpuNext} the one on the CPU (only NEXT_SUB, from a user yellow, can be queued before the CPU moves).
+     */
+    public int chooseKind(int userTotal, int cpuTotal, int cpuBag, int userNext, int cpuNext) {
+        if (userTotal >= T || cpuTotal >= T || GameSolver.size(cpuBag) == 0) return -1;
+        int n = (userNext << 1) | (cpuNext == GameSolver.NEXT_SUB ? 1 : 0);
+        return get(((userTotal * T + cpuTotal) * GameSolver.BAGS + GameSolver.rank(cpuBag)) * NEXT_COMBOS + n) - 1;
+    }
+
+    @Override
+    public int choose(GameEngine engine, GameEngine.PlayerState self, Random rng) {
+        if (engine.isEndgame() || self != engine.cpu()) return -1;
+        GameEngine.PlayerState user = engine.user();
+        int kind = chooseKind(user.total, self.total, GameSolver.bagOf(self),
+                GameSolver.nextCode(user.nextEffect), GameSolver.nextCode(self.nextEffect));
+        if (kind < 0) return -1;
+        return self.eyes().slotOf(kind);
+    }
+}
@@ -0,0 +1,186 @@
+package game.core;
+
+import java.util.Random;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Where GameEngine's dice come from: rollOnce takes d6(), randomEffect takes
+ * nextInt(5), and reset() takes nextLong() for the next game's seed. A source
+ * can be re-seeded in place (reset(seed) allocates nothing) and split into an
+ * independent stream for another thread.
+ *
+ * legacy() is java.util.Random, the engine's default: a journal written by
+ * this engine replays exactly from its seeds (JournalReplayer relies on that).
+ * A seed no longer deals what it did in the game jam build: a grant to a
+ * full bag no longer draws an effect, and reset() reseeds from nextLong(). The
+ * others trade java.util.Random for speed: no atomic CAS per draw, and
+ * nothing shared between threads.
+ */
+public interface DiceSource extends RandomGenerator {
+
+    /** One die, 1..6. */
+    default int d6() { return 1 + nextInt(6); }
+
+    /** Restarts the stream as if freshly built with {@code seed}. */
+    void reseed(long seed);
+
+    /** A new, statistically independent stream; this one moves on as well. */
+    DiceSource split();
+
+    // ----- Factories -----
+
+    static DiceSource legacy(long seed)    { return new Legacy(seed); }
+    static DiceSource splitMix(long seed)  { return new SplitMix(seed); }
+    static DiceSource xoroshiro(long seed) { return new Xoroshiro(seed); }
+
+    /** Any RandomGenerator (SplittableRandom::new, a RandomGeneratorFactory, ...); reseed builds a new one. */
+    static DiceSource of(LongFunction<? extends RandomGenerator> factory, long seed) { return new Adapter(factory, seed); }
+
+    /** d6() served from a buffer of {@code size} dice refilled in batches from {@code source}. */
+    static DiceSource buffered(DiceSource source, int size) { return new Buffered(source, size); }
+
+    /** CLI names: random (legacy), splitmix, xoroshiro, splittable, each optionally with "+buf". */
+    static DiceSource byName(String name, long seed) {
+        boolean buf = name.endsWith("+buf");
+        String base = buf ? name.substring(0, name.length() - 4) : name;
+        DiceSource d = switch (base) {
+            case "random", "legacy" -> legacy(seed);
+            case "splitmix"         -> splitMix(seed);
+            case "xoroshiro"        -> xoroshiro(seed);
+            case "splittable"       -> of(java.util.SplittableRandom::new, seed);
+            default -> throw new IllegalArgumentException("Unknown dice source: " + name);
+        };
+        return buf ? buffered(d, Buffered.DEFAULT_SIZE) : d;
+    }
+
+    /** SplitMix64 output function; also how the 64-bit generators expand a seed. */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ----- Implementations -----
+
+    /** java.util.Random, draw for draw; the dice GameEngine has always used. */
+    final class Legacy implements DiceSource {
+        private final Random rnd;
+        Legacy(long seed) { rnd = new Random(seed); }
+        @Override public long nextLong()          { return rnd.nextLong(); }
+        @Override public int nextInt()            { return rnd.nextInt(); }
+        @Override public int nextInt(int bound)   { return rnd.nextInt(bound); }
+        @Override public double nextDouble()      { return rnd.nextDouble(); }
+        @Override public void reseed(long seed)   { rnd.setSeed(seed); }
+        @Override public DiceSource split()       { return new Legacy(rnd.nextLong()); }
+    }
+
+    /** SplitMix64: one add and a mix per draw; the generator behind SplittableRandom. */
+    final class SplitMix implements DiceSource {
+        private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+        private long state;
+        SplitMix(long seed) { state = seed; }
+        @Override public long nextLong()        { return mix64(state += GOLDEN); }
+        @Override public void reseed(long seed) { state = seed; }
+        @Override public DiceSource split()     { return new SplitMix(mix64(nextLong())); }
+    }
+
+    /** Xoroshiro128++ (Blackman and Vigna), with the 2^64-step jump for non-overlapping streams. */
+    final class Xoroshiro implements DiceSource {
+        private static final long[] JUMP = { 0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L };
+        private long s0, s1;
+
+        Xoroshiro(long seed) { reseed(seed); }
+        private Xoroshiro(long s0, long s1) { this.s0 = s0; this.s1 = s1; }
+
+        @Override public void reseed(long seed) {
+            s0 = mix64(seed += 0x9E3779B97F4A7C15L);
+            s1 = mix64(seed + 0x9E3779B97F4A7C15L);
+            if ((s0 | s1) == 0) s1 = 1;                    // the all-zero state is a fixed point
+        }
+
+        @Override public long nextLong() {
+            long a = s0, b = s1;
+            long result = Long.rotateLeft(a + b, 17) + a;
+            b ^= a;
+            s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+            s1 = Long.rotateLeft(b, 28);
+            return result;
+        }
+
+        /** Advances this stream by 2^64 draws. */
+        public void jump() {
+            long t0 = 0, t1 = 0;
+            for (long j : JUMP)
+                for (int bit = 0; bit < 64; bit++) {
+                    if ((j & (1L << bit)) != 0) { t0 ^= s0; t1 ^= s1; }
+                    nextLong();
+                }
+            s0 = t0; s1 = t1;
+        }
+
+        /** The current stream goes to the copy; this one jumps 2^64 draws ahead. */
+        @Override public DiceSource split() {
+            Xoroshiro copy = new Xoroshiro(s0, s1);
+            jump();
+            return copy;
+        }
+    }
+
+    /** Wraps any RandomGenerator; reseeding asks the factory for a new one. */
+    final class Adapter implements DiceSource {
+        private final LongFunction<? extends RandomGenerator> factory;
+        private RandomGenerator gen;
+        Adapter(LongFunction<? extends RandomGenerator> factory, long seed) { this.factory = factory; gen = factory.apply(seed); }
+        @Override public long nextLong()          { return gen.nextLong(); }
+        @Override public int nextInt()            { return gen.nextInt(); }
+        @Override public int nextInt(int bound)   { return gen.nextInt(bound); }
+        @Override public void reseed(long seed)   { gen = factory.apply(seed); }
+        @Override public DiceSource split()       { return new Adapter(factory, gen.nextLong()); }
+    }
+
+    /**
+     * Pre-rolled d6 values. A refill turns each 64-bit draw into DICE_PER_LONG
+     * dice by repeated multiply-by-6 (the high part is the die, the low part is
+     * what is left), which keeps each die within 2^-30 of uniform. Everything but
+     * d6() goes straight to the underlying source, so the order of draws, and
+     * with it every game, is fixed by the seed.
+     */
+    final class Buffered implements DiceSource {
+        static final int DEFAULT_SIZE = 40;      // about one game's dice, since engines re-seed per game
+        private static final int DICE_PER_LONG = 10;
+        private final DiceSource src;
+        private final byte[] dice;
+        private int next;
+
+        Buffered(DiceSource src, int size) {
+            this.src = src;
+            this.dice = new byte[Math.max(DICE_PER_LONG, size / DICE_PER_LONG * DICE_PER_LONG)];
+            this.next = dice.length;
+        }
+
+        @Override public int d6() {
+            if (next == dice.length) refill();
+            return dice[next++];
+        }
+
+        private void refill() {
+            for (int i = 0; i < dice.length; ) {
+                long x = src.nextLong();
+                for (int k = 0; k < DICE_PER_LONG; k++) {
+                    long lo = (x & 0xFFFFFFFFL) * 6;
+                    long hi = (x >>> 32) * 6 + (lo >>> 32);
+                    dice[i++] = (byte) (1 + (hi >>> 32));
+                    x = (hi << 32) | (lo & 0xFFFFFFFFL);
+                }
+            }
+            next = 0;
+        }
+
+        @Override public long nextLong()        { return src.nextLong(); }
+        @Override public int nextInt()          { return src.nextInt(); }
+        @Override public int nextInt(int bound) { return src.nextInt(bound); }
+        @Override public void reseed(long seed) { src.reseed(seed); next = dice.length; }
+        @Override public DiceSource split()     { return new Buffered(src.split(), dice.length); }
+    }
+}
@@ -0,0 +1,136 @@
+package game.core;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A player's eyes as MAX_EYES (8) stable slots packed into primitives. Each slot
+ * holds one kind or nothing, a new eye takes the lowest free slot and keeps it
+ * until spent, so the UI can address eyes by slot and slot i is always the i-th
+ * icon. Per kind, an 8-bit slot mask is kept (all five packed into one long),
+ * which makes "lowest slot of kind K", counts and size single bit operations.
+ *
+ * Only kinds are stored: every eye the engine grants comes from randomEffect,
+ * whose magnitude is fixed per kind, so {@link GameEngine.PendingEffect#of}
+ * recovers the effect. Mutation is package-private; the UI only reads.
+ */
+public final class EyeBag {
+
+    public static final int SLOTS = GameEngine.MAX_EYES;
+    private static final int ALL = (1 << SLOTS) - 1;
+    private static final GameEngine.EffectKind[] KINDS = GameEngine.EffectKind.values();
+
+    /** Bits 8k..8k+7: slots holding kind k (ordinal). */
+    private long kindSlots;
+    /** Bit s: slot s is occupied. */
+    private int occupied;
+
+    private final List<GameEngine.PendingEffect> view = new AbstractList<>() {
+        @Override public GameEngine.PendingEffect get(int index) {
+            int slot = slotAt(index);
+            if (slot < 0) throw new IndexOutOfBoundsException(index);
+            return GameEngine.PendingEffect.of(kindAt(slot));
+        }
+        @Override public int size() { return EyeBag.this.size(); }
+    };
+
+    // ----- Reads -----
+
+    public int size()             { return Integer.bitCount(occupied); }
+    public boolean isEmpty()      { return occupied == 0; }
+    public boolean isFull()       { return occupied == ALL; }
+    public boolean isOccupied(int slot) { return slot >= 0 && slot < SLOTS && (occupied & (1 << slot)) != 0; }
+
+    /** Kind in a slot, or null if it is empty. */
+    public GameEngine.EffectKind kindAt(int slot) {
+        int k = kindOrdinalAt(slot);
+        return k < 0 ? null : KINDS[k];
+    }
+
+    /** Kind ordinal in a slot, or -1 if it is empty. */
+    public int kindOrdinalAt(int slot) {
+        if (!isOccupied(slot)) return -1;
+        for (int k = 0; k < KINDS.length; k++)
+            if ((kindSlots & (1L << (8 * k + slot))) != 0) return k;
+        return -1;
+    }
+
+    public int count(GameEngine.EffectKind kind) { return Long.bitCount(mask(kind.ordinal())); }
+
+    /** Lowest slot holding this kind, or -1. */
+    public int slotOf(GameEngine.EffectKind kind) { return slotOf(kind.ordinal()); }
+
+    /** Lowest slot holding the kind with this ordinal, or -1. */
+    public int slotOf(int kindOrdinal) { return lowest(mask(kindOrdinal)); }
+
+    /** Lowest occupied slot, or -1. */
+    public int firstSlot() { return lowest(occupied); }
+
+    /** Lowest free slot, or -1 when full. */
+    public int freeSlot() { return lowest(~occupied & ALL); }
+
+    /** Slot of the {@code index}-th eye in slot order, or -1. */
+    public int slotAt(int index) {
+        int bits = occupied;
+        for (int i = 0; bits != 0; i++, bits &= bits - 1)
+            if (i == index) return Integer.numberOfTrailingZeros(bits);
+        return -1;
+    }
+
+    /** Bitmask of occupied slots. */
+    public int occupiedMask() { return occupied; }
+
+    /** Count of each kind, 4 bits per kind ordinal (the layout GameSolver uses). */
+    public int counts() {
+        int c = 0;
+        for (int k = 0; k < KINDS.length; k++) c |= Long.bitCount(mask(k)) << (4 * k);
+        return c;
+    }
+
+    /** Slots as base-6 digits, slot 0 least significant: 0 = empty, else kind ordinal + 1. Fits in 21 bits. */
+    public int slotCode() {
+        int code = 0;
+        for (int s = SLOTS - 1; s >= 0; s--) code = code * 6 + kindOrdinalAt(s) + 1;
+        return code;
+    }
+
+    /** Read-only live view of the eyes in slot order; no copying. */
+    public List<GameEngine.PendingEffect> asList() { return view; }
+
+    private long mask(int kind) { return (kindSlots >>> (8 * kind)) & ALL; }
+
+    private static int lowest(long bits) { return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits); }
+
+    // ----- Writes (engine only) -----
+
+    /** Puts an eye in the lowest free slot; returns the slot, or -1 if full. */
+    int add(GameEngine.EffectKind kind) {
+        int slot = freeSlot();
+        if (slot >= 0) put(slot, kind.ordinal());
+        return slot;
+    }
+
+    void put(int slot, int kind) {
+        occupied |= 1 << slot;
+        kindSlots |= 1L << (8 * kind + slot);
+    }
+
+    /** Empties a slot; returns the kind it held, or null. */
+    GameEngine.EffectKind remove(int slot) {
+        GameEngine.EffectKind kind = kindAt(slot);
+        if (kind != null) {
+            occupied &= ~(1 << slot);
+            kindSlots &= ~(1L << (8 * kind.ordinal() + slot));
+        }
+        return kind;
+    }
+
+    void clear() { occupied = 0; kindSlots = 0; }
+
+    /** Refills the bag from a {@link #slotCode()}. */
+    void setSlotCode(int code) {
+        clear();
+        for (int s = 0; s < SLOTS; s++, code /= 6)
+            if (code % 6 != 0) put(s, code % 6 - 1);
+    }
+}
@@ -0,0 +1,50 @@
+package game.core;
+
+import java.util.Random;
+
+/**
+ * Decides whether a player spends an eye before the next round, and which one.
+ * Consulted once per side per round, user first, exactly like the Roll button.
+ */
+@FunctionalInterface
+public interface EyePolicy {
+
+    /** Slot (see {@link EyeBag}) of the eye to spend, or -1 to hold. */
+    int choose(GameEngine engine, GameEngine.PlayerState self, Random rng);
+
+    /** Never spends anything. */
+    EyePolicy HOLD = (engine, self, rng) -> -1;
+
+    /** Spends the eye in the lowest occupied slot whenever it has one. */
+    EyePolicy FIRST = firstEye(1.0);
+
+    /** Spends the first eye with the given odds; GameClass's CPU was firstEye(0.6) before CpuPolicy. */
+    static EyePolicy firstEye(double chance) {
+        return (engine, self, rng) -> (!self.eyes().isEmpty() && rng.nextDouble() < chance) ? self.eyes().firstSlot() : -1;
+    }
+
+    /**
+     * Looks a policy up by its CLI name: hold, first, table (CpuPolicy, the best
+     * reply to a user who holds), firstNN (percent, e.g. first60),
+     * search (expectimax, 5 ms a decision) or searchN (N ms, e.g. search20), mcts (tree search,
+     * 30 ms a decision on every core), mctsNms (N ms) or mctsN (N rollouts); or by difficulty:
+     * easy (first60, the game jam's CPU), normal (search) or hard (mcts).
+     * Every call builds a new policy; an mcts one holds a thread pool until closed.
+     */
+    static EyePolicy byName(String name) {
+        if (name.equals("easy")) return firstEye(0.6);
+        if (name.equals("normal")) return byName("search");
+        if (name.equals("hard")) return byName("mcts");
+        if (name.equals("hold")) return HOLD;
+        if (name.equals("first")) return FIRST;
+        if (name.equals("table")) return CpuPolicy.bestAgainstHold();
+        if (name.equals("search")) return new SearchPolicy(SearchPolicy.DEFAULT_BUDGET_NANOS);
+        if (name.startsWith("search")) return new SearchPolicy((long) (Double.parseDouble(name.substring(6)) * 1e6));
+        if (name.equals("mcts")) return MctsPolicy.budget(MctsPolicy.DEFAULT_BUDGET_NANOS);
+        if (name.startsWith("mcts") && name.endsWith("ms"))
+            return MctsPolicy.budget((long) (Double.parseDouble(name.substring(4, name.length() - 2)) * 1e6));
+        if (name.startsWith("mcts")) return MctsPolicy.rollouts(Integer.parseInt(name.substring(4)));
+        if (name.startsWith("first")) return firstEye(Integer.parseInt(name.substring(5)) / 100.0);
+        throw new IllegalArgumentException("Unknown eye policy: " + name);
+    }
+}
@@ -5,6 +5,8 @@ import java.util.*;
 public class GameEngine {
 
     public static final int TARGET = 21;
+    /** Eyes a player can hold; the UI bar has 8 slots and further grants are dropped. */
+    public static final int MAX_EYES = 8;
 
     public enum EffectKind {
         SELF_ADD_ROLL,        // GREEN  (+1 to your next roll)
@@ -14,45 +16,65 @@ public class GameEngine {
         OPP_DIVIDE_TOTAL      // RED    (opponent total /= 2, immediate)
     }
 
+    public enum Outcome { USER_WINS, CPU_WINS, TIE }
+    private static final EffectKind[] KINDS = EffectKind.values();
+
     public static class PendingEffect {
+        // effects are immutable, so the five that randomEffect hands out are shared (no allocation per grant)
+        public static final PendingEffect RED    = new PendingEffect(EffectKind.OPP_DIVIDE_TOTAL,   2);
+        public static final PendingEffect YELLOW = new PendingEffect(EffectKind.OPP_SUBTRACT_ROLL,  1);
+        public static final PendingEffect GREEN  = new PendingEffect(EffectKind.SELF_ADD_ROLL,      1);
+        public static final PendingEffect BLUE   = new PendingEffect(EffectKind.SELF_MULTIPLY_ROLL, 2);
+        public static final PendingEffect PURPLE = new PendingEffect(EffectKind.SELF_SUBTRACT_ROLL, 1);
+
         public final EffectKind kind;
         public final int magnitude;
+        private String text; // toString, built on first use
         public PendingEffect(EffectKind kind, int magnitude) { this.kind = kind; this.magnitude = magnitude; }
-        @Override public String toString() {
+
+        /** The shared effect of a kind, with the magnitude randomEffect gives it. */
+        public static PendingEffect of(EffectKind kind) {
             return switch (kind) {
-                case SELF_ADD_ROLL      -> "+" + magnitude;
-                case SELF_MULTIPLY_ROLL -> "x" + magnitude;
-                case SELF_SUBTRACT_ROLL -> "-" + magnitude;
-                case OPP_SUBTRACT_ROLL  -> "Opponent -" + magnitude;
-                case OPP_DIVIDE_TOTAL   -> "Opponent /" + magnitude;
+                case OPP_DIVIDE_TOTAL   -> RED;
+                case OPP_SUBTRACT_ROLL  -> YELLOW;
+                case SELF_ADD_ROLL      -> GREEN;
+                case SELF_MULTIPLY_ROLL -> BLUE;
+                case SELF_SUBTRACT_ROLL -> PURPLE;
             };
         }
+
+        /** Shared instance when kind+magnitude is a standard effect, otherwise a new one. */
+        public static PendingEffect of(EffectKind kind, int magnitude) {
+            PendingEffect std = of(kind);
+            return std.magnitude == magnitude ? std : new PendingEffect(kind, magnitude);
+        }
+
+        @Override public String toString() {
+            if (text == null) {
+                text = switch (kind) {
+                    case SELF_ADD_ROLL      -> "+" + magnitude;
+                    case SELF_MULTIPLY_ROLL -> "x" + magnitude;
+                    case SELF_SUBTRACT_ROLL -> "-" + magnitude;
+                    case OPP_SUBTRACT_ROLL  -> "Opponent -" + magnitude;
+                    case OPP_DIVIDE_TOTAL   -> "Opponent /" + magnitude;
+                };
+            }
+            return text;
+        }
     }
 
     public static class PlayerState {
         public final String name;
         public int total = 0;
-        // instead of a single boolean, track a BAG of eyes (each eye already knows its effect)
-        private final Deque<PendingEffect> eyes = new ArrayDeque<>();
+        // instead of a single boolean, track a BAG of eyes in stable slots (see EyeBag)
+        private final EyeBag eyes = new EyeBag();
         public PendingEffect nextEffect = null; // roll-time modifier
         public int lastBaseRoll = 0, lastFinalRoll = 0;
         public PlayerState(String name) { this.name = name; }
-        // accessors for UI
-        public List<PendingEffect> eyesView() { return Collections.unmodifiableList(new ArrayList<>(eyes)); }
-        // private boolean hasEyes() { return !eyes.isEmpty(); }           // not needed
-        private void addEye(PendingEffect e) { eyes.addLast(e); }          // enqueue
-        private PendingEffect takeEye(int index) {                         // remove by index (0..)
-            if (index < 0 || index >= eyes.size()) return null;
-            Iterator<PendingEffect> it = eyes.iterator();
-            int i = 0;
-            while (it.hasNext()) {
-                PendingEffect p = it.next();
-                if (i == index) { it.remove(); return p; }
-                i++;
-            }
-            return null;
-        }
-        private void clearEyes() { eyes.clear(); }
+        // accessors for UI: read-only, nothing is copied
+        public EyeBag eyes() { return eyes; }
+        public List<PendingEffect> eyesView() { return eyes.asList(); }   // slot order
+        public int eyeCount() { return eyes.size(); }
     }
 
     public interface Listener {
@@ -60,22 +82,37 @@ public class GameEngine {
         default void onRoll(PlayerState who, int baseRoll, int finalRoll, PendingEffect consumed) {}
         // now includes WHICH effect was granted so UI can color the new eye
         default void onEyeGranted(PlayerState who, PendingEffect granted) {}
+        // ...and the slot it landed in (what the engine calls)
+        default void onEyeGranted(PlayerState who, PendingEffect granted, int slot) { onEyeGranted(who, granted); }
         default void onEffectChosen(PlayerState who, PendingEffect effect) {}
         default void onEndgameTriggered(PlayerState firstAtOrAboveTarget) {}
         default void onGameOver(String resultText, PlayerState user, PlayerState cpu) {}
+        // structured form; the text is only built for listeners that keep the default
+        default void onGameOver(Outcome outcome, PlayerState user, PlayerState cpu) {
+            onGameOver(resultText(outcome, user, cpu), user, cpu);
+        }
     }
 
-    private final Random rng;
-    private final Listener listener;
+    private final DiceSource dice;
+    private long seed;       // seed of the current game; replaying it with the same eye choices reproduces the game
+    private final Listener listener; // null = nobody listening, skip dispatch entirely
     private final PlayerState user, cpu;
 
     private int roundIndex = 1;
     private boolean endgame = false;
     private PlayerState firstReached = null;
 
+    /** Legacy java.util.Random dice; seed 0 picks one from the clock (seed() tells which). */
     public GameEngine(String userName, String cpuName, Listener listener, long seed) {
-        this.rng = new Random(seed == 0 ? System.nanoTime() : seed);
-        this.listener = (listener != null) ? listener : new Listener(){};
+        this(userName, cpuName, listener, DiceSource.legacy(0), (seed == 0) ? System.nanoTime() : seed);
+    }
+
+    /** Dice from {@code dice}, re-seeded with {@code seed}. */
+    public GameEngine(String userName, String cpuName, Listener listener, DiceSource dice, long seed) {
+        this.seed = seed;
+        this.dice = dice;
+        dice.reseed(seed);
+        this.listener = listener;
         this.user = new PlayerState(userName);
         this.cpu  = new PlayerState(cpuName);
     }
@@ -84,46 +121,81 @@ public class GameEngine {
     public PlayerState cpu()  { return cpu; }
     public boolean isEndgame(){ return endgame; }
     public int roundIndex()   { return roundIndex; }
+    public long seed()        { return seed; }
+    /** Who reached TARGET first once the endgame started, otherwise null. */
+    public PlayerState firstReached() { return firstReached; }
+
+    /** Result once playRound has returned false, otherwise null. Derived from the totals. */
+    public Outcome outcome() {
+        return (endgame && user.total >= TARGET && cpu.total >= TARGET) ? outcomeOf(user.total, cpu.total) : null;
+    }
+
+    /** Closest to TARGET wins. */
+    public static Outcome outcomeOf(int userTotal, int cpuTotal) {
+        int du = Math.abs(TARGET - userTotal);
+        int dc = Math.abs(TARGET - cpuTotal);
+        return (du < dc) ? Outcome.USER_WINS : (dc < du) ? Outcome.CPU_WINS : Outcome.TIE;
+    }
+
+    /** The game-over line for the log, e.g. "You win! (21 vs 24)". */
+    public static String resultText(Outcome outcome, PlayerState user, PlayerState cpu) {
+        return switch (outcome) {
+            case USER_WINS -> "You win! (" + user.total + " vs " + cpu.total + ")";
+            case CPU_WINS  -> "CPU wins! (" + cpu.total + " vs " + user.total + ")";
+            case TIE       -> "It's a tie at " + user.total + " and " + cpu.total + ".";
+        };
+    }
 
     // ----- Eyes / effects -----
 
     /** 5 equiprobable effects with fixed magnitudes (equal odds). */
     public PendingEffect randomEffect() {
-        return switch (rng.nextInt(5)) {
-            case 0 -> new PendingEffect(EffectKind.OPP_DIVIDE_TOTAL,   2); // RED
-            case 1 -> new PendingEffect(EffectKind.OPP_SUBTRACT_ROLL,  1); // YELLOW
-            case 2 -> new PendingEffect(EffectKind.SELF_ADD_ROLL,      1); // GREEN
-            case 3 -> new PendingEffect(EffectKind.SELF_MULTIPLY_ROLL, 2); // BLUE
-            default -> new PendingEffect(EffectKind.SELF_SUBTRACT_ROLL,1); // PURPLE
+        return switch (dice.nextInt(5)) {
+            case 0 -> PendingEffect.RED;
+            case 1 -> PendingEffect.YELLOW;
+            case 2 -> PendingEffect.GREEN;
+            case 3 -> PendingEffect.BLUE;
+            default -> PendingEffect.PURPLE;
         };
     }
 
-    /** Use a specific eye (by index) that the owner currently has. Returns the effect used. */
+    /** Use the {@code index}-th eye in slot order (as in eyesView). Returns the effect used. */
     public PendingEffect useEye(PlayerState owner, int index) {
+        return useEyeInSlot(owner, owner.eyes.slotAt(index));
+    }
+
+    /** Use the eye in a specific slot (stable while it is held). Returns the effect used, or null if the slot is empty. */
+    public PendingEffect useEyeInSlot(PlayerState owner, int slot) {
         if (endgame) return null;                    // no buffs in endgame
-        PendingEffect eff = owner.takeEye(index);
-        if (eff == null) return null;
+        EffectKind kind = owner.eyes.remove(slot);
+        if (kind == null) return null;
+        PendingEffect eff = PendingEffect.of(kind);
         PlayerState opp = (owner == user) ? cpu : user;
 
         switch (eff.kind) {
             case OPP_DIVIDE_TOTAL -> {               // immediate
                 opp.total = Math.max(0, opp.total / eff.magnitude);
-                listener.onEffectChosen(owner, eff);
+                if (listener != null) listener.onEffectChosen(owner, eff);
             }
             case OPP_SUBTRACT_ROLL -> {              // queue on opponent’s next roll
                 opp.nextEffect = eff;
-                listener.onEffectChosen(owner, eff);
+                if (listener != null) listener.onEffectChosen(owner, eff);
             }
             default -> {                              // self roll-time effects
                 owner.nextEffect = eff;
-                listener.onEffectChosen(owner, eff);
+                if (listener != null) listener.onEffectChosen(owner, eff);
             }
         }
         return eff;
     }
 
-    /** CPU helper: use the first eye (FIFO). Returns effect or null. */
-    public PendingEffect useFirstEye(PlayerState owner) { return useEye(owner, 0); }
+    /** Use the owner's lowest-slot eye of a kind. Returns effect or null if they have none. */
+    public PendingEffect useEyeOfKind(PlayerState owner, EffectKind kind) {
+        return useEyeInSlot(owner, owner.eyes.slotOf(kind));
+    }
+
+    /** CPU helper: use the eye in the lowest occupied slot. Returns effect or null. */
+    public PendingEffect useFirstEye(PlayerState owner) { return useEyeInSlot(owner, owner.eyes.firstSlot()); }
 
     // ----- Game loop -----
 
@@ -136,22 +208,22 @@ public class GameEngine {
             return true;
         }
 
-        listener.onRoundStart(roundIndex, user, cpu);
+        if (listener != null) listener.onRoundStart(roundIndex, user, cpu);
 
         int ur = rollOnce(user);
         int cr = rollOnce(cpu);
         user.total += ur;
         cpu.total  += cr;
 
-        // Grant eye to lower roll (tie = none); eye has its EFFECT at grant time
-        if (ur < cr) {
+        // Grant eye to lower roll (tie = none, full bag = none); it takes the lowest free slot
+        if (ur < cr && !user.eyes.isFull()) {
             PendingEffect g = randomEffect();
-            user.addEye(g);
-            listener.onEyeGranted(user, g);
-        } else if (cr < ur) {
+            int slot = user.eyes.add(g.kind);
+            if (listener != null) listener.onEyeGranted(user, g, slot);
+        } else if (cr < ur && !cpu.eyes.isFull()) {
             PendingEffect g = randomEffect();
-            cpu.addEye(g);
-            listener.onEyeGranted(cpu, g);
+            int slot = cpu.eyes.add(g.kind);
+            if (listener != null) listener.onEyeGranted(cpu, g, slot);
         }
 
         // Trigger endgame if someone crossed
@@ -162,10 +234,10 @@ public class GameEngine {
                     : (user.total >= TARGET ? user : cpu);
 
             // wipe eyes & pending effects for both
-            user.clearEyes(); cpu.clearEyes();
+            user.eyes.clear(); cpu.eyes.clear();
             user.nextEffect = cpu.nextEffect = null;
 
-            listener.onEndgameTriggered(firstReached);
+            if (listener != null) listener.onEndgameTriggered(firstReached);
 
             if (user.total >= TARGET && cpu.total >= TARGET) { checkForGameOver(); return false; }
         }
@@ -175,7 +247,7 @@ public class GameEngine {
     }
 
     private int rollOnce(PlayerState p) {
-        int base = 1 + rng.nextInt(6);
+        int base = dice.d6();
         int out = base;
         PendingEffect used = p.nextEffect;
         p.nextEffect = null;
@@ -190,22 +262,57 @@ public class GameEngine {
             }
         }
         p.lastBaseRoll = base; p.lastFinalRoll = out;
-        listener.onRoll(p, base, out, used);
+        if (listener != null) listener.onRoll(p, base, out, used);
         return out;
     }
 
     private void checkForGameOver() {
-        int du = Math.abs(TARGET - user.total);
-        int dc = Math.abs(TARGET - cpu.total);
-        String result = (du < dc) ? "You win! (" + user.total + " vs " + cpu.total + ")"
-                        : (dc < du) ? "CPU wins! (" + cpu.total + " vs " + user.total + ")"
-                                    : "It's a tie at " + user.total + " and " + cpu.total + ".";
-        listener.onGameOver(result, user, cpu);
+        if (listener != null) listener.onGameOver(outcomeOf(user.total, cpu.total), user, cpu);
+    }
+
+    // ----- Snapshots -----
+
+    /** The current position as a StateKey (totals, eye slots, pending effects, endgame, first to TARGET, round). */
+    public long snapshot() {
+        if (endgame) return StateKey.endgame(roundIndex, user.total, cpu.total, firstReached == cpu);
+        return StateKey.normal(roundIndex, user.total, cpu.total, user.eyes.slotCode(), cpu.eyes.slotCode(),
+                StateKey.nextCode(user.nextEffect), StateKey.nextCode(cpu.nextEffect));
+    }
+
+    /**
+     * Puts the engine back into the position of a snapshot, reusing both PlayerStates.
+     * Listeners are not told, the dice stream carries on as it was and the last rolls read 0.
+     */
+    public void restore(long key) {
+        user.total = StateKey.userTotal(key);
+        cpu.total  = StateKey.cpuTotal(key);
+        user.eyes.setSlotCode(StateKey.userSlots(key));
+        cpu.eyes.setSlotCode(StateKey.cpuSlots(key));
+        user.nextEffect = pending(StateKey.userNext(key));
+        cpu.nextEffect  = pending(StateKey.cpuNext(key));
+        user.lastBaseRoll = user.lastFinalRoll = 0;
+        cpu.lastBaseRoll = cpu.lastFinalRoll = 0;
+        roundIndex = StateKey.round(key);
+        endgame = StateKey.isEndgame(key);
+        firstReached = !endgame ? null : StateKey.cpuReachedFirst(key) ? cpu : user;
     }
 
+    private static PendingEffect pending(int code) {
+        return code == 0 ? null : PendingEffect.of(KINDS[code - 1]);
+    }
+
+    /** New game; its seed is drawn from the old game's dice, so a seeded engine stays reproducible. */
     public void reset() {
+        long next = dice.nextLong();
+        reset(next == 0 ? 1 : next);
+    }
+
+    /** New game whose dice come from {@code seed} (as if the engine had just been built with it). */
+    public void reset(long seed) {
+        this.seed = seed;
+        dice.reseed(seed);
         user.total = cpu.total = 0;
-        user.clearEyes(); cpu.clearEyes();
+        user.eyes.clear(); cpu.eyes.clear();
         user.nextEffect = cpu.nextEffect = null;
         user.lastBaseRoll = user.lastFinalRoll = 0;
         cpu.lastBaseRoll = cpu.lastFinalRoll = 0;
@@ -0,0 +1,512 @@
+package game.core;
+
+/**
+ * Exact win/tie/loss odds for the user from any GameEngine position, given how
+ * each side spends its eyes from here on. Instead of sampling, the whole state
+ * space is tabulated once: every round-start position (both totals below TARGET,
+ * each tracked eye bag as per-kind counts) gets its value, and a query just
+ * evaluates the CPU's pending decision and one roll against that table.
+ *
+ * Eye bags are only tracked for sides whose strategy spends: a bag that is never
+ * spent cannot change the outcome, so it is dropped from the state. With one
+ * spending side the table holds 441 * 1287 positions; two spending sides would
+ * need ~7e8 and are refused. Red eyes halve totals, so positions can repeat;
+ * the table is solved by value iteration (Gauss-Seidel sweeps until nothing
+ * moves), ordered so that one sweep is normally enough.
+ *
+ * One side can instead be solved for (see {@link #bestCpu} and {@link #bestUser}):
+ * each sweep takes that side's best option at every position rather than
+ * averaging over a strategy, so the table is the best reply to the other side's
+ * strategy. CpuPolicy builds its table from the CPU's best reply to a user who
+ * holds.
+ *
+ * The model mirrors rollOnce/useEye/checkForGameOver with the fixed magnitudes
+ * randomEffect hands out, and the Roll button's order: the user decides, then
+ * the CPU, then both roll.
+ */
+public class GameSolver {
+
+    /** Roll-time modifier codes, as passed to {@link Strategy}. */
+    public static final int NEXT_NONE = 0, NEXT_ADD = 1, NEXT_MUL = 2, NEXT_SUB = 3;
+
+    private static final int KINDS = GameEngine.EffectKind.values().length;
+    private static final int ADD = GameEngine.EffectKind.SELF_ADD_ROLL.ordinal();
+    private static final int MUL = GameEngine.EffectKind.SELF_MULTIPLY_ROLL.ordinal();
+    private static final int SELF_SUB = GameEngine.EffectKind.SELF_SUBTRACT_ROLL.ordinal();
+    private static final int OPP_SUB = GameEngine.EffectKind.OPP_SUBTRACT_ROLL.ordinal();
+    private static final int DIVIDE = GameEngine.EffectKind.OPP_DIVIDE_TOTAL.ordinal();
+
+    private static final int T = GameEngine.TARGET;
+    private static final double EPSILON = 1e-13;
+    private static final int MAX_SWEEPS = 10_000;
+    private static final long MAX_STATES = 1L << 26;
+
+    /** Solver-side view of an eye policy: how likely each kind is to be spent this round. */
+    public interface Strategy {
+        /**
+         * Fills {@code out[kind.ordinal()]} with the probability of spending one eye of
+         * that kind; whatever is left over is "hold". {@code bag} packs the count of
+         * each kind in 4 bits (see {@link GameSolver#count}); the {@code next} codes
+         * are the NEXT_* modifiers already queued for this round.
+         */
+        void spend(int selfTotal, int oppTotal, int bag, int selfNext, int oppNext, double[] out);
+
+        /** False when the strategy never spends, so its owner's bag can be left out of the state. */
+        default boolean spends() { return true; }
+
+        /** Never spends. */
+        Strategy HOLD = new Strategy() {
+            @Override public void spend(int s, int o, int bag, int sn, int on, double[] out) {
+                java.util.Arrays.fill(out, 0);
+            }
+            @Override public boolean spends() { return false; }
+        };
+
+        /**
+         * Spends one eye with the given odds, picking a held eye uniformly. Grants are
+         * i.i.d., so this is exactly {@link EyePolicy#firstEye} (GameClass's CPU) as
+         * seen by anyone who does not know the order the eyes arrived in.
+         */
+        static Strategy random(double chance) {
+            return (s, o, bag, sn, on, out) -> {
+                int size = size(bag);
+                for (int k = 0; k < KINDS; k++) out[k] = size == 0 ? 0 : chance * count(bag, k) / size;
+            };
+        }
+    }
+
+    /** Odds from the user's point of view. */
+    public static final class Odds {
+        public final double win, tie, loss;
+        Odds(double win, double tie) { this.win = win; this.tie = tie; this.loss = Math.max(0, 1 - win - tie); }
+        @Override public String toString() {
+            return String.format("win %.4f  tie %.4f  loss %.4f", win, tie, loss);
+        }
+    }
+
+    // ----- Eye bags as per-kind counts -----
+
+    /** Number of distinct bags of at most MAX_EYES eyes over the five kinds. */
+    static final int BAGS;
+    /** Packed counts of each bag rank. */
+    private static final int[] BAG;
+    /** Rank of a bag indexed by its counts in base (MAX_EYES + 1). */
+    private static final short[] RANK;
+    /** Rank after adding/removing one eye of a kind (rank * KINDS + kind), -1 if impossible. */
+    private static final int[] PLUS, MINUS;
+
+    static {
+        int base = GameEngine.MAX_EYES + 1;
+        int digits = 1;
+        for (int k = 0; k < KINDS; k++) digits *= base;
+        RANK = new short[digits];
+        int[] bags = new int[digits];
+        int n = 0;
+        for (int d = 0; d < digits; d++) {
+            int packed = 0, size = 0;
+            for (int k = 0, x = d; k < KINDS; k++, x /= base) {
+                packed |= (x % base) << (4 * k);
+                size += x % base;
+            }
+            if (size > GameEngine.MAX_EYES) { RANK[d] = -1; continue; }
+            RANK[d] = (short) n;
+            bags[n++] = packed;
+        }
+        BAGS = n;
+        BAG = java.util.Arrays.copyOf(bags, n);
+        PLUS = new int[n * KINDS];
+        MINUS = new int[n * KINDS];
+        for (int r = 0; r < n; r++) {
+            for (int k = 0; k < KINDS; k++) {
+                PLUS[r * KINDS + k] = size(BAG[r]) < GameEngine.MAX_EYES ? rank(BAG[r] + (1 << (4 * k))) : -1;
+                MINUS[r * KINDS + k] = count(BAG[r], k) > 0 ? rank(BAG[r] - (1 << (4 * k))) : -1;
+            }
+        }
+    }
+
+    /** Count of {@code kind} (ordinal) in a packed bag. */
+    public static int count(int bag, int kind) { return (bag >>> (4 * kind)) & 15; }
+
+    /** Number of eyes in a packed bag. */
+    public static int size(int bag) {
+        int s = 0;
+        for (int k = 0; k < KINDS; k++) s += count(bag, k);
+        return s;
+    }
+
+    /** Packed per-kind counts of a player's eyes. */
+    public static int bagOf(GameEngine.PlayerState p) { return p.eyes().counts(); }
+
+    /** Packed counts of the bag with the given rank (0 .. BAGS-1). */
+    static int bagAt(int rank) { return BAG[rank]; }
+
+    static int rank(int bag) {
+        int d = 0;
+        for (int k = KINDS - 1; k >= 0; k--) d = d * (GameEngine.MAX_EYES + 1) + count(bag, k);
+        return RANK[d];
+    }
+
+    // ----- Endgame: the chaser rolls plain d6 until reaching TARGET -----
+
+    /** CHASE[c][f - T]: chance a chaser starting at c < T stops on f (T..T+5). */
+    private static final double[][] CHASE = new double[T][6];
+
+    static {
+        for (int c = T - 1; c >= 0; c--) {
+            for (int d = 1; d <= 6; d++) {
+                if (c + d >= T) CHASE[c][c + d - T] += 1.0 / 6;
+                else for (int f = 0; f < 6; f++) CHASE[c][f] += CHASE[c + d][f] / 6;
+            }
+        }
+    }
+
+    // ----- Table -----
+
+    private final Strategy user, cpu;        // null for a side solved for
+    private final boolean userBest, cpuBest; // that side takes its best option instead of asking its strategy
+    private final int userBags, cpuBags;
+    private final double[] win, tie;
+    // value of each position with one random eye granted to the user / the CPU (itself when untracked or full)
+    private final double[] userGrantWin, userGrantTie, cpuGrantWin, cpuGrantTie;
+    private int sweeps;
+
+    // scratch for strategy output (user, cpu); the solver is single-threaded while building
+    private final double[] userOut = new double[KINDS], cpuOut = new double[KINDS];
+
+    /** Builds the full table for the given strategies; this is the one-time cost. */
+    public GameSolver(Strategy user, Strategy cpu) {
+        this(java.util.Objects.requireNonNull(user), java.util.Objects.requireNonNull(cpu), false, false);
+    }
+
+    /**
+     * The table of the CPU's best reply to {@code user}: at every position the CPU
+     * spends (or holds) whatever maximises its own win + tie/2, found by value
+     * iteration. bestCpuEye reads the choice back.
+     */
+    public static GameSolver bestCpu(Strategy user) { return new GameSolver(user, null, false, true); }
+
+    /** The table of the user's best reply to {@code cpu}, as bestCpu is the CPU's. */
+    public static GameSolver bestUser(Strategy cpu) { return new GameSolver(null, cpu, true, false); }
+
+    private GameSolver(Strategy user, Strategy cpu, boolean userBest, boolean cpuBest) {
+        this.user = user;
+        this.cpu = cpu;
+        this.userBest = userBest;
+        this.cpuBest = cpuBest;
+        this.userBags = userBest || user.spends() ? BAGS : 1;
+        this.cpuBags = cpuBest || cpu.spends() ? BAGS : 1;
+        long states = (long) T * T * userBags * cpuBags;
+        if (states > MAX_STATES)
+            throw new IllegalArgumentException("Exact solve needs " + states + " states; let at most one side spend");
+        this.win = new double[(int) states];
+        this.tie = new double[(int) states];
+        this.userGrantWin = userBags > 1 ? new double[(int) states] : win;
+        this.userGrantTie = userBags > 1 ? new double[(int) states] : tie;
+        this.cpuGrantWin = cpuBags > 1 ? new double[(int) states] : win;
+        this.cpuGrantTie = cpuBags > 1 ? new double[(int) states] : tie;
+        solve();
+    }
+
+    /** Value-iteration sweeps the build took. */
+    public int sweeps() { return sweeps; }
+
+    /** Number of tabulated round-start positions. */
+    public int size() { return win.length; }
+
+    private int index(int u, int c, int ru, int rc) { return ((u * T + c) * userBags + ru) * cpuBags + rc; }
+
+    private void solve() {
+        // A total only shrinks when the other side spends a red eye, so sweep the total
+        // that can never shrink from the top: every successor of a position is then
+        // already up to date unless it loops back through a zero roll.
+        boolean cpuMajor = userBags == 1;
+        double[] out = new double[2];
+        for (sweeps = 1; sweeps <= MAX_SWEEPS; sweeps++) {
+            double delta = 0;
+            for (int a = T - 1; a >= 0; a--) {
+                for (int b = T - 1; b >= 0; b--) {
+                    int u = cpuMajor ? b : a, c = cpuMajor ? a : b;
+                    for (int ru = 0; ru < userBags; ru++) {
+                        for (int rc = 0; rc < cpuBags; rc++) {
+                            roundStart(u, c, ru, rc, out);
+                            int i = index(u, c, ru, rc);
+                            delta = Math.max(delta, Math.abs(out[0] - win[i]) + Math.abs(out[1] - tie[i]));
+                            win[i] = out[0];
+                            tie[i] = out[1];
+                        }
+                    }
+                    averageGrants(u, c);
+                }
+            }
+            if (delta < EPSILON) return;
+        }
+    }
+
+    private void averageGrants(int u, int c) {
+        for (int ru = 0; ru < userBags; ru++) {
+            for (int rc = 0; rc < cpuBags; rc++) {
+                int i = index(u, c, ru, rc);
+                if (userBags > 1) {
+                    double w = win[i], t = tie[i];
+                    if (PLUS[ru * KINDS] >= 0) {
+                        w = t = 0;
+                        for (int k = 0; k < KINDS; k++) {
+                            int j = index(u, c, PLUS[ru * KINDS + k], rc);
+                            w += win[j] / KINDS;
+                            t += tie[j] / KINDS;
+                        }
+                    }
+                    userGrantWin[i] = w;
+                    userGrantTie[i] = t;
+                }
+                if (cpuBags > 1) {
+                    double w = win[i], t = tie[i];
+                    if (PLUS[rc * KINDS] >= 0) {
+                        w = t = 0;
+                        for (int k = 0; k < KINDS; k++) {
+                            int j = index(u, c, ru, PLUS[rc * KINDS + k]);
+                            w += win[j] / KINDS;
+                            t += tie[j] / KINDS;
+                        }
+                    }
+                    cpuGrantWin[i] = w;
+                    cpuGrantTie[i] = t;
+                }
+            }
+        }
+    }
+
+    /** Value of a round-start position: the user's choice, then the CPU's, then the roll. */
+    private void roundStart(int u, int c, int ru, int rc, double[] out) {
+        if (userBest) {
+            bestUser(u, c, ru, rc, out);
+            return;
+        }
+        double w = 0, t = 0;
+        double hold = 1;
+        if (userBags > 1) {
+            user.spend(u, c, BAG[ru], NEXT_NONE, NEXT_NONE, userOut);
+            for (int k = 0; k < KINDS; k++) {
+                double p = userOut[k];
+                if (p <= 0 || MINUS[ru * KINDS + k] < 0) continue;
+                hold -= p;
+                userSpends(u, c, ru, rc, k, out);
+                w += p * out[0];
+                t += p * out[1];
+            }
+        }
+        if (hold > 0) {
+            cpuTurn(u, c, ru, rc, NEXT_NONE, NEXT_NONE, out);
+            w += hold * out[0];
+            t += hold * out[1];
+        }
+        out[0] = w;
+        out[1] = t;
+    }
+
+    private void userSpends(int u, int c, int ru, int rc, int k, double[] out) {
+        int nc = k == DIVIDE ? c / 2 : c;
+        int pu = k == OPP_SUB || k == DIVIDE ? NEXT_NONE : nextCode(k);
+        int pc = k == OPP_SUB ? NEXT_SUB : NEXT_NONE;
+        cpuTurn(u, nc, MINUS[ru * KINDS + k], rc, pu, pc, out);
+    }
+
+    /** Best user option by win + tie/2; returns the kind spent, or -1 for hold. */
+    private int bestUser(int u, int c, int ru, int rc, double[] out) {
+        cpuTurn(u, c, ru, rc, NEXT_NONE, NEXT_NONE, out);
+        double bw = out[0], bt = out[1];
+        int best = -1;
+        for (int k = 0; k < KINDS; k++) {
+            if (MINUS[ru * KINDS + k] < 0) continue;
+            userSpends(u, c, ru, rc, k, out);
+            if (out[0] + out[1] / 2 > bw + bt / 2 + EPSILON) { bw = out[0]; bt = out[1]; best = k; }
+        }
+        out[0] = bw;
+        out[1] = bt;
+        return best;
+    }
+
+    /** The CPU's choice with the user's modifiers already queued, then the roll. */
+    private void cpuTurn(int u, int c, int ru, int rc, int pu, int pc, double[] out) {
+        if (cpuBest) {
+            bestCpu(u, c, ru, rc, pu, pc, out);
+            return;
+        }
+        double w = 0, t = 0;
+        double hold = 1;
+        if (cpuBags > 1) {
+            cpu.spend(c, u, BAG[rc], pc, pu, cpuOut);
+            for (int k = 0; k < KINDS; k++) {
+                double p = cpuOut[k];
+                if (p <= 0 || MINUS[rc * KINDS + k] < 0) continue;
+                hold -= p;
+                cpuSpends(u, c, ru, rc, pu, pc, k, out);
+                w += p * out[0];
+                t += p * out[1];
+            }
+        }
+        if (hold > 0) {
+            roll(u, c, ru, rc, pu, pc, out);
+            w += hold * out[0];
+            t += hold * out[1];
+        }
+        out[0] = w;
+        out[1] = t;
+    }
+
+    private void cpuSpends(int u, int c, int ru, int rc, int pu, int pc, int k, double[] out) {
+        int nu = k == DIVIDE ? u / 2 : u;
+        int npu = k == OPP_SUB ? NEXT_SUB : pu;
+        int npc = k == OPP_SUB || k == DIVIDE ? pc : nextCode(k);
+        roll(nu, c, ru, MINUS[rc * KINDS + k], npu, npc, out);
+    }
+
+    /** Best CPU option, i.e. lowest user win + tie/2; returns the kind spent, or -1 for hold. */
+    private int bestCpu(int u, int c, int ru, int rc, int pu, int pc, double[] out) {
+        roll(u, c, ru, rc, pu, pc, out);
+        double bw = out[0], bt = out[1];
+        int best = -1;
+        for (int k = 0; k < KINDS; k++) {
+            if (MINUS[rc * KINDS + k] < 0) continue;
+            cpuSpends(u, c, ru, rc, pu, pc, k, out);
+            if (out[0] + out[1] / 2 < bw + bt / 2 - EPSILON) { bw = out[0]; bt = out[1]; best = k; }
+        }
+        out[0] = bw;
+        out[1] = bt;
+        return best;
+    }
+
+    /** Both roll with the queued modifiers; lower roll gets a random eye; endgame if anyone crossed. */
+    private void roll(int u, int c, int ru, int rc, int pu, int pc, double[] out) {
+        double w = 0, t = 0;
+        for (int du = 1; du <= 6; du++) {
+            int fu = APPLY[pu][du];
+            for (int dc = 1; dc <= 6; dc++) {
+                int fc = APPLY[pc][dc];
+                int nu = u + fu, nc = c + fc;
+                if (nu >= T || nc >= T) {
+                    double[] e = ENDGAME[nu][nc];
+                    w += e[0];
+                    t += e[1];
+                    continue;
+                }
+                int i = index(nu, nc, ru, rc);
+                if (fu < fc) {
+                    w += userGrantWin[i];
+                    t += userGrantTie[i];
+                } else if (fc < fu) {
+                    w += cpuGrantWin[i];
+                    t += cpuGrantTie[i];
+                } else {
+                    w += win[i];
+                    t += tie[i];
+                }
+            }
+        }
+        out[0] = w / 36;
+        out[1] = t / 36;
+    }
+
+    /** Odds once a total has crossed, indexed by the totals straight after the crossing roll. */
+    static final double[][][] ENDGAME = new double[2 * T][2 * T][];
+
+    static {
+        for (int u = 0; u < 2 * T; u++)
+            for (int c = 0; c < 2 * T; c++)
+                if (u >= T || c >= T) ENDGAME[u][c] = endgameOdds(u, c);
+    }
+
+    private static double[] endgameOdds(int u, int c) {
+        if (u >= T && c >= T) return compare(u, c);
+        double w = 0, t = 0;
+        for (int f = 0; f < 6; f++) {
+            double p = u >= T ? CHASE[c][f] : CHASE[u][f];
+            double[] r = u >= T ? compare(u, T + f) : compare(T + f, c);
+            w += p * r[0];
+            t += p * r[1];
+        }
+        return new double[] { w, t };
+    }
+
+    /** Same rule as checkForGameOver: closer to TARGET wins. */
+    private static double[] compare(int u, int c) {
+        int du = Math.abs(T - u), dc = Math.abs(T - c);
+        return new double[] { du < dc ? 1 : 0, du == dc ? 1 : 0 };
+    }
+
+    /** APPLY[next][base]: final roll for a die showing base under a NEXT_* modifier (as rollOnce). */
+    static final int[][] APPLY = new int[4][7];
+
+    static {
+        for (int d = 1; d <= 6; d++) {
+            APPLY[NEXT_NONE][d] = d;
+            APPLY[NEXT_ADD][d] = d + 1;
+            APPLY[NEXT_MUL][d] = d * 2;
+            APPLY[NEXT_SUB][d] = Math.max(0, d - 1);
+        }
+    }
+
+    static int nextCode(int kind) {
+        if (kind == ADD) return NEXT_ADD;
+        if (kind == MUL) return NEXT_MUL;
+        if (kind == SELF_SUB || kind == OPP_SUB) return NEXT_SUB;
+        return NEXT_NONE;
+    }
+
+    /** NEXT_* code of a queued effect. */
+    public static int nextCode(GameEngine.PendingEffect e) { return e == null ? NEXT_NONE : nextCode(e.kind.ordinal()); }
+
+    // ----- Queries -----
+
+    /** Odds at the start of a round, before either side has decided. */
+    public Odds roundStart(int userTotal, int cpuTotal, int userBag, int cpuBag) {
+        int i = index(userTotal, cpuTotal, userBags > 1 ? rank(userBag) : 0, cpuBags > 1 ? rank(cpuBag) : 0);
+        return new Odds(win[i], tie[i]);
+    }
+
+    /**
+     * Odds if the user presses Roll now: whatever the user has queued stays queued,
+     * the CPU makes its choice, and the round is played. Works from any position,
+     * including the endgame and finished games.
+     */
+    public Odds odds(GameEngine engine) {
+        GameEngine.PlayerState u = engine.user(), c = engine.cpu();
+        if (engine.isEndgame()) {
+            if (u.total >= T && c.total >= T) {
+                double[] r = compare(u.total, c.total);
+                return new Odds(r[0], r[1]);
+            }
+            double[] r = endgameOdds(u.total, c.total); // whoever is at/over TARGET reached first
+            return new Odds(r[0], r[1]);
+        }
+        double[] out = new double[2];
+        int ru = userBags > 1 ? rank(bagOf(u)) : 0;
+        int rc = cpuBags > 1 ? rank(bagOf(c)) : 0;
+        cpuTurn(u.total, c.total, ru, rc, nextCode(u.nextEffect), nextCode(c.nextEffect), out);
+        return new Odds(out[0], out[1]);
+    }
+
+    /**
+     * The CPU's best eye against this table once the user has queued {@code userNext}
+     * and {@code cpuNext} (NEXT_* codes): an EffectKind ordinal, or -1 to hold. Only
+     * meaningful when the CPU's bag is tracked, i.e. its strategy spends.
+     */
+    public int bestCpuEye(int userTotal, int cpuTotal, int userBag, int cpuBag, int userNext, int cpuNext) {
+        if (cpuBags == 1) throw new IllegalStateException("CPU bag is not part of this table");
+        int ru = userBags > 1 ? rank(userBag) : 0;
+        return bestCpu(userTotal, cpuTotal, ru, rank(cpuBag), userNext, cpuNext, new double[2]);
+    }
+
+    /** bestCpuEye by bag rank with caller scratch; safe to call from several threads once built. */
+    int bestCpuEye(int u, int c, int ru, int rc, int pu, int pc, double[] scratch) {
+        return bestCpu(u, c, ru, rc, pu, pc, scratch);
+    }
+
+    public static void main(String[] args) {
+        long t0 = System.nanoTime();
+        GameSolver solver = new GameSolver(Strategy.HOLD, Strategy.random(0.6));
+        System.out.printf("built %d positions in %d sweeps, %.2fs%n",
+                solver.size(), solver.sweeps(), (System.nanoTime() - t0) / 1e9);
+        System.out.println("start (user holds, CPU 60% first eye): " + solver.roundStart(0, 0, 0, 0));
+    }
+}
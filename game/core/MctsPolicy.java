@@ -0,0 +1,283 @@
+package game.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An eye choice by Monte Carlo tree search: as many games as the budget allows
+ * are played out from the current position, and the choice whose games went
+ * best is taken. Nothing is precomputed, so it plays at full strength from
+ * the first Roll, and it gets stronger with more time or more cores.
+ *
+ * The tree is open-loop: a node is a sequence of eye choices (hold or one of
+ * the five kinds, alternating between the sides the way the Roll button asks
+ * them, user then CPU, then the dice), and each rollout deals its own dice
+ * beneath it. Choices are made by UCT (UCB1 on the choosing side's win +
+ * tie/2) among the ones its bag allows in that rollout; the first rollout
+ * to reach an untried choice adds its node, and the rest of the game is
+ * played with each side spending a held eye only where it plainly helps
+ * (halve a big total, double or +1 a low one, -1 near TARGET), up to the
+ * roll that crosses TARGET: the endgame after it has no choices left, so it
+ * is scored exactly from GameSolver's table instead of being played out,
+ * which takes the chaser's dice out of every rollout's variance.
+ *
+ * Rollouts run on a ForkJoinPool, one task per worker, all sharing one tree
+ * without locks: a node's visits and points sit in one AtomicLong, its
+ * children in an AtomicReferenceArray filled by compareAndSet. A rollout
+ * counts its visit on the way down, before its result is known (a virtual
+ * loss), so workers descending at the same time spread over different
+ * branches. Each worker has its own GameEngine, restored from the root's
+ * snapshot for every rollout, and its own dice stream. Workers share only the
+ * tree and the rollout counter, so throughput grows with cores. close()
+ * shuts the pool down once the policy is no longer needed.
+ */
+public final class MctsPolicy implements EyePolicy, AutoCloseable {
+
+    /** Wall-clock budget of a plain "mcts" (and of the hard difficulty). */
+    public static final long DEFAULT_BUDGET_NANOS = 30_000_000L;
+
+    private static final int KINDS = GameEngine.EffectKind.values().length;
+    private static final GameEngine.EffectKind[] KIND = GameEngine.EffectKind.values();
+    /** Child index: 0 holds, k + 1 spends kind k. */
+    private static final int ACTIONS = KINDS + 1;
+    private static final double EXPLORATION = 0.7;
+    /** Rollouts between clock checks. */
+    private static final int CLOCK_EVERY = 16;
+    private static final int MAX_PATH = 256;
+    /** Stats layout: visits in the high 24 bits, points (a win is POINT) in the low 40. */
+    private static final int VISIT_SHIFT = 40;
+    private static final long POINT = 1 << 10;
+    /** Rollouts a decision is capped at, so no node's visits overflow. */
+    private static final int MAX_ROLLOUTS = (1 << 24) - 1;
+
+    private final int rollouts;
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Worker> workers;
+    private final AtomicLong seeds = new AtomicLong(System.nanoTime());
+    private final LongAdder decisions = new LongAdder(), totalRollouts = new LongAdder(), nanos = new LongAdder();
+    private volatile int lastRollouts;
+    private volatile long lastNanos;
+
+    /**
+     * Stops after {@code rollouts} rollouts or {@code budgetNanos}, whichever
+     * comes first (0: no limit of that kind; at least one is required), on a
+     * pool of {@code parallelism} workers.
+     */
+    public MctsPolicy(int rollouts, long budgetNanos, int parallelism) {
+        if (rollouts <= 0 && budgetNanos <= 0) throw new IllegalArgumentException("no rollout count or budget");
+        this.rollouts = Math.max(0, rollouts);
+        this.budgetNanos = Math.max(0, budgetNanos);
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.workers = ThreadLocal.withInitial(() -> new Worker(DiceSource.mix64(seeds.getAndAdd(0x9E3779B97F4A7C15L))));
+    }
+
+    /** {@code rollouts} rollouts a decision, on every core. */
+    public static MctsPolicy rollouts(int rollouts) {
+        return new MctsPolicy(rollouts, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** As many rollouts as fit in {@code budgetNanos}, on every core. */
+    public static MctsPolicy budget(long budgetNanos) {
+        return new MctsPolicy(0, budgetNanos, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int parallelism() { return pool.getParallelism(); }
+
+    /** Stops the worker pool; choose() must not be called afterwards. */
+    @Override public void close() { pool.shutdown(); }
+
+    @Override
+    public int choose(GameEngine engine, GameEngine.PlayerState self, Random rng) {
+        if (engine.isEndgame() || self.eyes().isEmpty()) return -1;
+        long t0 = System.nanoTime();
+        Search search = new Search(engine.snapshot(), self == engine.cpu(), t0);
+        int workerCount = pool.getParallelism();
+        pool.invoke(new RecursiveAction() {
+            @Override protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>(workerCount);
+                for (int i = 0; i < workerCount; i++) tasks.add(new RecursiveAction() {
+                    @Override protected void compute() { workers.get().run(search); }
+                });
+                invokeAll(tasks);
+            }
+        });
+        long took = System.nanoTime() - t0;
+        int done = search.done.get();
+        decisions.increment();
+        totalRollouts.add(done);
+        nanos.add(took);
+        lastRollouts = done;
+        lastNanos = took;
+        int kind = search.best(self.eyes().counts());
+        return kind < 0 ? -1 : self.eyes().slotOf(kind);
+    }
+
+    /** The last decision, e.g. "12034 rollouts in 30.0 ms (401k rollouts/s) on 4 workers". */
+    public String lastSearch() {
+        long ns = lastNanos;
+        return String.format("%d rollouts in %.1f ms (%.0fk rollouts/s) on %d workers",
+                lastRollouts, ns / 1e6, ns == 0 ? 0 : lastRollouts * 1e6 / ns, parallelism());
+    }
+
+    public long decisions() { return decisions.sum(); }
+
+    /** Rollouts per second, over every decision so far. */
+    public double rolloutsPerSecond() {
+        long ns = nanos.sum();
+        return ns == 0 ? 0 : totalRollouts.sum() * 1e9 / ns;
+    }
+
+    @Override public String toString() {
+        long n = decisions();
+        return String.format("mcts %s on %d workers: %d decisions, %.0f rollouts avg, %.0fk rollouts/s",
+                rollouts > 0 && budgetNanos > 0 ? rollouts + " rollouts or " + budgetNanos / 1e6 + " ms"
+                        : rollouts > 0 ? rollouts + " rollouts" : budgetNanos / 1e6 + " ms",
+                parallelism(), n, n == 0 ? 0 : (double) totalRollouts.sum() / n, rolloutsPerSecond() / 1e3);
+    }
+
+    /** One choice in the tree: its visits and the chooser's points (win + tie/2, in POINTs), packed in one long. */
+    private static final class Node {
+        final AtomicLong stats = new AtomicLong();
+        final AtomicReferenceArray<Node> children = new AtomicReferenceArray<>(ACTIONS);
+
+        static int visits(long s) { return (int) (s >>> VISIT_SHIFT); }
+        static long points(long s) { return s & ((1L << VISIT_SHIFT) - 1); }
+    }
+
+    /** One decision's tree and rollout count, shared by the workers. */
+    private final class Search {
+        final long root;
+        final boolean cpuFirst;          // whose choice the root is
+        final long deadline;
+        final Node tree = new Node();
+        final AtomicInteger claimed = new AtomicInteger(), done = new AtomicInteger();
+
+        Search(long root, boolean cpuFirst, long t0) {
+            this.root = root;
+            this.cpuFirst = cpuFirst;
+            this.deadline = budgetNanos > 0 ? t0 + budgetNanos : Long.MAX_VALUE;
+        }
+
+        /** Takes the next rollout, or false when the count is used up. */
+        boolean claim() {
+            int n = claimed.getAndIncrement();
+            return n < MAX_ROLLOUTS && (rollouts == 0 || n < rollouts);
+        }
+
+        /** The most visited choice the bag allows: a kind ordinal, or -1 to hold. */
+        int best(int bag) {
+            int best = -1, most = -1;
+            for (int a = 0; a < ACTIONS; a++) {
+                if (a > 0 && GameSolver.count(bag, a - 1) == 0) continue;
+                Node child = tree.children.get(a);
+                int v = child == null ? 0 : Node.visits(child.stats.get());
+                if (v > most) { most = v; best = a - 1; }
+            }
+            return best;
+        }
+    }
+
+    /** A pool thread's engine, dice and scratch path; used by that thread only. */
+    private static final class Worker {
+        final DiceSource dice;
+        final GameEngine engine;
+        final Node[] path = new Node[MAX_PATH];
+        final boolean[] pathCpu = new boolean[MAX_PATH];   // whose choice each path node is
+
+        Worker(long seed) {
+            dice = DiceSource.splitMix(seed);
+            engine = new GameEngine("You", "CPU", null, dice, seed);
+        }
+
+        void run(Search s) {
+            for (int n = 0; s.claim(); n++) {
+                if (n % CLOCK_EVERY == CLOCK_EVERY - 1 && System.nanoTime() > s.deadline) return;
+                rollout(s);
+                s.done.incrementAndGet();
+            }
+        }
+
+        private void rollout(Search s) {
+            GameEngine e = engine;
+            e.restore(s.root);
+            s.tree.stats.getAndAdd(1L << VISIT_SHIFT);
+            Node node = s.tree;
+            boolean cpu = s.cpuFirst;
+            int depth = 0;
+            boolean more = true, expanded = false;
+            // down the tree, one choice per node, until a new node is added or the eyes are gone
+            while (more && !e.isEndgame() && !expanded && depth < MAX_PATH) {
+                GameEngine.PlayerState p = cpu ? e.cpu() : e.user();
+                int a = select(node, p.eyes().counts());
+                Node child = node.children.get(a);
+                if (child == null) {
+                    Node fresh = new Node();
+                    child = node.children.compareAndSet(a, null, fresh) ? fresh : node.children.get(a);
+                    expanded = child == fresh;
+                }
+                child.stats.getAndAdd(1L << VISIT_SHIFT);  // virtual loss until the result is in
+                path[depth] = child;
+                pathCpu[depth++] = cpu;
+                if (a > 0) e.useEyeOfKind(p, KIND[a - 1]);
+                if (cpu) more = e.playRound();            // the CPU chooses last, then both roll
+                cpu = !cpu;
+            }
+            // the rest of the game by rule of thumb, up to the crossing roll
+            while (more && !e.isEndgame()) {
+                if (!cpu) playEye(e, e.user());
+                playEye(e, e.cpu());
+                more = e.playRound();
+                cpu = false;
+            }
+            long cpuPoints = cpuPoints(e);
+            for (int i = 0; i < depth; i++)
+                path[i].stats.getAndAdd(pathCpu[i] ? cpuPoints : POINT - cpuPoints);
+        }
+
+        /** UCT over the choices {@code bag} allows; an untried one first. */
+        private int select(Node node, int bag) {
+            double logN = Math.log(Math.max(1, Node.visits(node.stats.get())));
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < ACTIONS; a++) {
+                if (a > 0 && GameSolver.count(bag, a - 1) == 0) continue;
+                Node child = node.children.get(a);
+                long st = child == null ? 0 : child.stats.get();
+                int v = Node.visits(st);
+                if (v == 0) return a;
+                double score = Node.points(st) / ((double) POINT * v) + EXPLORATION * Math.sqrt(logN / v);
+                if (score > bestScore) { bestScore = score; best = a; }
+            }
+            return best;
+        }
+
+        /** The CPU's win + tie/2 in POINTs, exact from the totals once the endgame has begun. */
+        private static long cpuPoints(GameEngine e) {
+            double[] odds = GameSolver.ENDGAME[e.user().total][e.cpu().total];  // the user's win, tie
+            return Math.round((1 - odds[0] - odds[1] / 2) * POINT);
+        }
+
+        /** Spends the first held eye that plainly helps, if any, the way a casual player would. */
+        private void playEye(GameEngine e, GameEngine.PlayerState p) {
+            GameEngine.PlayerState o = p == e.cpu() ? e.user() : e.cpu();
+            EyeBag b = p.eyes();
+            int target = GameEngine.TARGET;
+            if (b.isEmpty()) return;
+            GameEngine.EffectKind k = null;
+            if (o.total >= 12 && b.slotOf(GameEngine.EffectKind.OPP_DIVIDE_TOTAL) >= 0) k = GameEngine.EffectKind.OPP_DIVIDE_TOTAL;
+            else if (p.total <= target - 13 && b.slotOf(GameEngine.EffectKind.SELF_MULTIPLY_ROLL) >= 0) k = GameEngine.EffectKind.SELF_MULTIPLY_ROLL;
+            else if (p.total <= target - 8 && b.slotOf(GameEngine.EffectKind.SELF_ADD_ROLL) >= 0) k = GameEngine.EffectKind.SELF_ADD_ROLL;
+            else if (o.total >= target - 5 && b.slotOf(GameEngine.EffectKind.OPP_SUBTRACT_ROLL) >= 0) k = GameEngine.EffectKind.OPP_SUBTRACT_ROLL;
+            else if (p.total >= target - 5 && b.slotOf(GameEngine.EffectKind.SELF_SUBTRACT_ROLL) >= 0) k = GameEngine.EffectKind.SELF_SUBTRACT_ROLL;
+            if (k != null) e.useEyeOfKind(p, k);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package game.core;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CPU's eye choice by expectimax search from the position in front of it,
+ * within a time budget per decision (5 ms by default): stronger than spending
+ * at random, with none of CpuPolicy's table to build. The tree follows a
+ * round as the Roll button plays it: the CPU's choice (max), both dice
+ * (chance, six faces each, with the queued modifiers as rollOnce applies
+ * them), the eye granted to the lower roll (chance, the five kinds
+ * randomEffect hands out), then the user's choice for the next round (min:
+ * the user is assumed to spend against the CPU, bag and all, since it is on
+ * screen) and the CPU's again. Values are the CPU's win + tie/2; a crossed
+ * total is scored exactly from GameSolver's endgame table, and a position at
+ * the search horizon by a race estimate (see {@link #estimate}).
+ *
+ * Search deepens one round at a time until the budget runs out, and plays the
+ * choice of the deepest search that finished. Every node's value is kept in a
+ * TranspositionTable keyed by the position (totals, per-kind bag counts and
+ * queued modifiers) and the rounds left to search, so a deeper pass reuses the
+ * shallower passes' subtrees and a later decision those of earlier ones. A
+ * decision borrows a searcher, with its own table (4 MB), from a pool of at
+ * most one per core and returns it after; a caller finding them all busy
+ * waits, so memory is bounded by the cores however many threads call in (a
+ * TableServer has one per connection). Stats are shared.
+ */
+public final class SearchPolicy implements EyePolicy {
+
+    /** Default budget per decision; -Deye.cpu=searchN picks N ms instead. */
+    public static final long DEFAULT_BUDGET_NANOS = 5_000_000L;
+
+    private static final int T = GameEngine.TARGET;
+    private static final int KINDS = GameEngine.EffectKind.values().length;
+    private static final int OPP_SUB = GameEngine.EffectKind.OPP_SUBTRACT_ROLL.ordinal();
+    private static final int DIVIDE = GameEngine.EffectKind.OPP_DIVIDE_TOTAL.ordinal();
+    private static final double EPSILON = 1e-12;
+    /** Deepest search, in rounds; only reached when positions near the end leave little to explore. */
+    private static final int MAX_DEPTH = 40;
+    private static final int TT_ENTRIES = 1 << 18;
+    /** Pips an unspent eye is worth to the race estimate. */
+    private static final double EYE_PIPS = 2.0;
+
+    /** Searchers a policy builds at most, and so searches that run at once. */
+    private static final int POOL = Runtime.getRuntime().availableProcessors();
+
+    /** One search's stats, for lastSearch(). */
+    private record Last(int depth, boolean exact, long nodes, long nanos) { }
+
+    private final long budgetNanos;
+    private final BlockingQueue<Searcher> idle = new ArrayBlockingQueue<>(POOL);
+    private final AtomicInteger built = new AtomicInteger();
+    private volatile Last last = new Last(0, false, 0, 0);
+    private final LongAdder decisions = new LongAdder(), nodes = new LongAdder(), nanos = new LongAdder(),
+            depths = new LongAdder();
+    private volatile int maxDepth;
+
+    public SearchPolicy(long budgetNanos) {
+        if (budgetNanos <= 0) throw new IllegalArgumentException("budget " + budgetNanos);
+        this.budgetNanos = budgetNanos;
+    }
+
+    public long budgetNanos() { return budgetNanos; }
+
+    @Override
+    public int choose(GameEngine engine, GameEngine.PlayerState self, Random rng) {
+        if (engine.isEndgame() || self != engine.cpu()) return -1;
+        GameEngine.PlayerState user = engine.user();
+        int kind = chooseKind(user.total, self.total, GameSolver.bagOf(user), GameSolver.bagOf(self),
+                GameSolver.nextCode(user.nextEffect), GameSolver.nextCode(self.nextEffect));
+        return kind < 0 ? -1 : self.eyes().slotOf(kind);
+    }
+
+    /**
+     * Best eye for the CPU, as an EffectKind ordinal, or -1 to hold. Bags are
+     * packed per-kind counts (see GameSolver#count), the next codes the NEXT_*
+     * modifiers already queued on each side this round.
+     */
+    public int chooseKind(int userTotal, int cpuTotal, int userBag, int cpuBag, int userNext, int cpuNext) {
+        if (userTotal >= T || cpuTotal >= T || GameSolver.size(cpuBag) == 0) return -1;
+        Searcher s = borrow();
+        int kind;
+        Last l;
+        try {
+            kind = s.search(userTotal, cpuTotal, userBag, cpuBag, userNext, cpuNext, budgetNanos);
+            l = new Last(s.lastDepth, s.lastExact, s.lastNodes, s.lastNanos);
+        } finally {
+            idle.offer(s);
+        }
+        last = l;
+        decisions.increment();
+        nodes.add(l.nodes);
+        nanos.add(l.nanos);
+        depths.add(l.depth);
+        if (l.depth > maxDepth) maxDepth = l.depth;
+        return kind;
+    }
+
+    /** An idle searcher, a new one while fewer than POOL exist, or else the next one returned. */
+    private Searcher borrow() {
+        Searcher s = idle.poll();
+        if (s != null) return s;
+        if (built.incrementAndGet() <= POOL) return new Searcher();
+        built.decrementAndGet();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return idle.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;                      // a decision is always made; keep the interrupt for later
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /** The latest search, by any caller, e.g. "depth 3, 41230 nodes in 5.0 ms (8.2M nodes/s)". */
+    public String lastSearch() {
+        Last l = last;
+        return String.format("depth %d%s, %d nodes in %.1f ms (%.1fM nodes/s)", l.depth, l.exact ? " (exact)" : "",
+                l.nodes, l.nanos / 1e6, l.nanos == 0 ? 0 : l.nodes * 1e3 / l.nanos);
+    }
+
+    public long decisions() { return decisions.sum(); }
+    public long nodes() { return nodes.sum(); }
+
+    /** Nodes searched per second, over every decision so far. */
+    public double nodesPerSecond() {
+        long ns = nanos.sum();
+        return ns == 0 ? 0 : nodes.sum() * 1e9 / ns;
+    }
+
+    /** Mean depth reached (rounds), over every decision so far. */
+    public double meanDepth() {
+        long n = decisions.sum();
+        return n == 0 ? 0 : (double) depths.sum() / n;
+    }
+
+    @Override public String toString() {
+        return String.format("search %.1f ms: %d decisions, depth %.2f avg (max %d), %.2fM nodes/s",
+                budgetNanos / 1e6, decisions(), meanDepth(), maxDepth, nodesPerSecond() / 1e6);
+    }
+
+    /**
+     * Race estimate of the CPU's win + tie/2 at the start of a round: its lead
+     * in pips, with EYE_PIPS per eye held, squashed by a logistic whose width
+     * grows with the rounds left (each round moves the lead by about 2.4 pips,
+     * one standard deviation of the difference of two dice).
+     */
+    static double estimate(int u, int c, int userBag, int cpuBag) {
+        double lead = (c - u) + EYE_PIPS * (GameSolver.size(cpuBag) - GameSolver.size(userBag));
+        double rounds = Math.max(1, (T - Math.max(u, c)) / 3.5);
+        return 1 / (1 + Math.exp(-1.7 * lead / (2.4 * Math.sqrt(rounds))));
+    }
+
+    /** Thrown through the search when the budget runs out; carries no stack. */
+    private static final class OutOfTime extends RuntimeException {
+        OutOfTime() { super(null, null, false, false); }
+    }
+
+    private static final OutOfTime OUT_OF_TIME = new OutOfTime();
+
+    /** One search's state, used by one caller at a time; not thread-safe. */
+    private static final class Searcher {
+        // node kinds in the key; see key()
+        private static final int ROUND = 0, CPU = 1, ROLL = 2;
+        /** Never a stored payload: values are in [0, 1]. */
+        private static final long MISSING = -1L;
+
+        final TranspositionTable tt = new TranspositionTable(TT_ENTRIES);
+        private long nodeCount, deadline;
+        private boolean timed, frontier;
+        int lastDepth;
+        long lastNodes, lastNanos;
+        boolean lastExact;
+
+        int search(int u, int c, int ub, int cb, int pu, int pc, long budget) {
+            long t0 = System.nanoTime();
+            deadline = t0 + budget;
+            nodeCount = 0;
+            int best = -1;
+            lastDepth = 0;
+            lastExact = false;
+            for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+                timed = depth > 1;                      // one round is always searched, however short the budget
+                frontier = false;
+                try {
+                    best = root(u, c, ub, cb, pu, pc, depth);
+                } catch (OutOfTime e) {
+                    break;
+                }
+                lastDepth = depth;
+                if (!frontier) {                        // every line reached the endgame: nothing deeper to see
+                    lastExact = true;
+                    break;
+                }
+                if (System.nanoTime() > deadline) break;
+            }
+            lastNodes = nodeCount;
+            lastNanos = System.nanoTime() - t0;
+            return best;
+        }
+
+        /** The CPU's choice at the root: the kind to spend, or -1 to hold. */
+        private int root(int u, int c, int ub, int cb, int pu, int pc, int depth) {
+            double best = roll(u, c, ub, cb, pu, pc, depth);
+            int kind = -1;
+            for (int k = 0; k < KINDS; k++) {
+                if (GameSolver.count(cb, k) == 0) continue;
+                double v = cpuSpends(u, c, ub, cb, pu, pc, k, depth);
+                if (v > best + EPSILON) { best = v; kind = k; }
+            }
+            return kind;
+        }
+
+        /** Start of a round with {@code depth} rounds left to search: the user's choice (min). */
+        private double roundStart(int u, int c, int ub, int cb, int depth) {
+            if (depth == 0) {
+                frontier = true;
+                return estimate(u, c, ub, cb);
+            }
+            long key = key(ROUND, depth, u, c, ub, cb, 0, 0);
+            long hit = tt.get(key, MISSING);
+            if (hit != MISSING) return recall(hit);
+            boolean outer = enter();
+            double v = cpuChoice(u, c, ub, cb, GameSolver.NEXT_NONE, GameSolver.NEXT_NONE, depth);
+            for (int k = 0; k < KINDS; k++) {
+                if (GameSolver.count(ub, k) == 0) continue;
+                // as GameSolver.userSpends: red halves the CPU now, yellow queues on the CPU, the rest on the user
+                int nc = k == DIVIDE ? c / 2 : c;
+                int pu = k == OPP_SUB || k == DIVIDE ? GameSolver.NEXT_NONE : GameSolver.nextCode(k);
+                int pc = k == OPP_SUB ? GameSolver.NEXT_SUB : GameSolver.NEXT_NONE;
+                v = Math.min(v, cpuChoice(u, nc, ub - (1 << (4 * k)), cb, pu, pc, depth));
+            }
+            return store(key, v, outer);
+        }
+
+        /** The CPU's choice (max) with the user's modifiers queued. */
+        private double cpuChoice(int u, int c, int ub, int cb, int pu, int pc, int depth) {
+            if (cb == 0) return roll(u, c, ub, cb, pu, pc, depth);
+            long key = key(CPU, depth, u, c, ub, cb, pu, pc);
+            long hit = tt.get(key, MISSING);
+            if (hit != MISSING) return recall(hit);
+            boolean outer = enter();
+            double v = roll(u, c, ub, cb, pu, pc, depth);
+            for (int k = 0; k < KINDS; k++)
+                if (GameSolver.count(cb, k) > 0) v = Math.max(v, cpuSpends(u, c, ub, cb, pu, pc, k, depth));
+            return store(key, v, outer);
+        }
+
+        private double cpuSpends(int u, int c, int ub, int cb, int pu, int pc, int k, int depth) {
+            // as GameSolver.cpuSpends: red halves the user now, yellow replaces the user's modifier
+            int nu = k == DIVIDE ? u / 2 : u;
+            int npu = k == OPP_SUB ? GameSolver.NEXT_SUB : pu;
+            int npc = k == OPP_SUB || k == DIVIDE ? pc : GameSolver.nextCode(k);
+            return roll(nu, c, ub, cb - (1 << (4 * k)), npu, npc, depth);
+        }
+
+        /** Both dice (chance), then the grant to the lower roll (chance), then the next round. */
+        private double roll(int u, int c, int ub, int cb, int pu, int pc, int depth) {
+            long key = key(ROLL, depth, u, c, ub, cb, pu, pc);
+            long hit = tt.get(key, MISSING);
+            if (hit != MISSING) return recall(hit);
+            boolean outer = enter();
+            double sum = 0;
+            for (int du = 1; du <= 6; du++) {
+                int fu = GameSolver.APPLY[pu][du];
+                for (int dc = 1; dc <= 6; dc++) {
+                    int fc = GameSolver.APPLY[pc][dc];
+                    int nu = u + fu, nc = c + fc;
+                    if (nu >= T || nc >= T) {
+                        double[] e = GameSolver.ENDGAME[nu][nc];  // the user's win, tie
+                        sum += 1 - e[0] - e[1] / 2;
+                    } else if (fu < fc && GameSolver.size(ub) < GameEngine.MAX_EYES) {
+                        double g = 0;
+                        for (int k = 0; k < KINDS; k++) g += roundStart(nu, nc, ub + (1 << (4 * k)), cb, depth - 1);
+                        sum += g / KINDS;
+                    } else if (fc < fu && GameSolver.size(cb) < GameEngine.MAX_EYES) {
+                        double g = 0;
+                        for (int k = 0; k < KINDS; k++) g += roundStart(nu, nc, ub, cb + (1 << (4 * k)), depth - 1);
+                        sum += g / KINDS;
+                    } else {
+                        sum += roundStart(nu, nc, ub, cb, depth - 1);
+                    }
+                }
+            }
+            return store(key, sum / 36, outer);
+        }
+
+        /*
+         * A table entry is the value's double bits with the lowest one replaced
+         * by whether it is exact, i.e. no line below it stopped at the horizon
+         * (a change of one ulp to the value). Each node collects that in
+         * `frontier` for its own subtree, then hands it on to its parent.
+         */
+
+        /** Value of a table hit, noting whether it rests on estimates. */
+        private double recall(long hit) {
+            if ((hit & 1) == 0) frontier = true;
+            return Double.longBitsToDouble(hit & ~1L);
+        }
+
+        /** Starts a node: counts it, checks the clock every 1024 nodes, and returns the parent's frontier flag. */
+        private boolean enter() {
+            if ((++nodeCount & 1023) == 0 && timed && System.nanoTime() > deadline) throw OUT_OF_TIME;
+            boolean outer = frontier;
+            frontier = false;
+            return outer;
+        }
+
+        /** Ends a node: stores its value with its exactness, and returns it. */
+        private double store(long key, double v, boolean outer) {
+            tt.put(key, Double.doubleToRawLongBits(v) & ~1L | (frontier ? 0 : 1));
+            frontier |= outer;
+            return v;
+        }
+
+        /**
+         * Node kind (2 bits), rounds left (6), both totals (5 each), both bags
+         * as per-kind counts (20 each) and both NEXT_* codes (2 each): 62 bits,
+         * never the table's empty marker.
+         */
+        private static long key(int kind, int depth, int u, int c, int ub, int cb, int pu, int pc) {
+            return (long) kind << 60 | (long) depth << 54 | (long) u << 49 | (long) c << 44
+                    | (long) ub << 24 | (long) cb << 4 | pu << 2 | pc;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package game.core;
+
+/**
+ * A whole GameEngine position in one long; see {@link GameEngine#snapshot()} and
+ * {@link GameEngine#restore(long)}. Two layouts share bits 56..63:
+ *
+ * <pre>
+ * bit  63      endgame flag
+ * bits 56..62  round index, saturating at MAX_ROUND
+ *
+ * normal phase (both totals below TARGET):
+ * bits  0..20  user eye slots, base 6 (see EyeBag#slotCode)
+ * bits 21..41  cpu eye slots
+ * bits 42..50  userTotal * TARGET + cpuTotal
+ * bits 51..55  userNext * 5 + cpuNext (0 = none, else EffectKind ordinal + 1)
+ *
+ * endgame (bags and pending effects are always empty):
+ * bits  0..5   user total
+ * bits  6..11  cpu total
+ * bit  12      the CPU reached TARGET first
+ * </pre>
+ *
+ * The dice stream and the last rolls are not part of a position. No valid key
+ * is -1 (an endgame key never sets bits 13..55), so tables can use it as "empty".
+ */
+public final class StateKey {
+
+    public static final int MAX_ROUND = 127;
+
+    private static final int T = GameEngine.TARGET;
+    private static final int SLOT_BITS = 21, SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int TOTALS_SHIFT = 42, NEXT_SHIFT = 51, ROUND_SHIFT = 56;
+    private static final int NEXT_CODES = 5;
+    private static final long ENDGAME = 1L << 63;
+    private static final int END_TOTAL_BITS = 6, END_TOTAL_MASK = (1 << END_TOTAL_BITS) - 1;
+    private static final long CPU_FIRST = 1L << 12;
+
+    private StateKey() {}
+
+    // ----- Building -----
+
+    public static long normal(int round, int userTotal, int cpuTotal,
+                              int userSlots, int cpuSlots, int userNext, int cpuNext) {
+        if (userTotal < 0 || userTotal >= T || cpuTotal < 0 || cpuTotal >= T)
+            throw new IllegalArgumentException("totals out of range: " + userTotal + ", " + cpuTotal);
+        if (userNext < 0 || userNext >= NEXT_CODES || cpuNext < 0 || cpuNext >= NEXT_CODES)
+            throw new IllegalArgumentException("pending effect cannot be queued: " + userNext + ", " + cpuNext);
+        return roundBits(round)
+                | (long) (userNext * NEXT_CODES + cpuNext) << NEXT_SHIFT
+                | (long) (userTotal * T + cpuTotal) << TOTALS_SHIFT
+                | (long) cpuSlots << SLOT_BITS
+                | userSlots;
+    }
+
+    public static long endgame(int round, int userTotal, int cpuTotal, boolean cpuReachedFirst) {
+        if (userTotal < 0 || userTotal > END_TOTAL_MASK || cpuTotal < 0 || cpuTotal > END_TOTAL_MASK)
+            throw new IllegalArgumentException("totals out of range: " + userTotal + ", " + cpuTotal);
+        return ENDGAME | roundBits(round)
+                | (cpuReachedFirst ? CPU_FIRST : 0)
+                | (long) cpuTotal << END_TOTAL_BITS
+                | userTotal;
+    }
+
+    private static long roundBits(int round) {
+        return (long) Math.max(0, Math.min(round, MAX_ROUND)) << ROUND_SHIFT;
+    }
+
+    /** Pending-effect code of a queued effect (0 = none). */
+    public static int nextCode(GameEngine.PendingEffect e) { return e == null ? 0 : e.kind.ordinal() + 1; }
+
+    /**
+     * The same position with the round index dropped and each bag's eyes moved to
+     * the lowest slots in kind order, so positions that only differ in slot layout
+     * or round (neither changes what either side can do from here) share one key.
+     */
+    public static long canonical(long key) {
+        if (isEndgame(key)) return key & ~((long) MAX_ROUND << ROUND_SHIFT);
+        return normal(0, userTotal(key), cpuTotal(key),
+                sortSlots(userSlots(key)), sortSlots(cpuSlots(key)), userNext(key), cpuNext(key));
+    }
+
+    private static int sortSlots(int code) {
+        int counts = 0;                                     // 4 bits per digit 1..5
+        for (int s = 0; s < EyeBag.SLOTS; s++, code /= 6) {
+            int d = code % 6;
+            if (d > 0) counts += 1 << (4 * (d - 1));
+        }
+        int out = 0, place = 1;
+        for (int d = 1; d <= NEXT_CODES; d++)
+            for (int n = (counts >>> (4 * (d - 1))) & 0xF; n > 0; n--, place *= 6) out += d * place;
+        return out;
+    }
+
+    // ----- Reading -----
+
+    public static boolean isEndgame(long key) { return key < 0; }
+    public static int round(long key)         { return (int) (key >>> ROUND_SHIFT) & MAX_ROUND; }
+
+    public static int userTotal(long key) {
+        return isEndgame(key) ? (int) key & END_TOTAL_MASK : (int) (key >>> TOTALS_SHIFT & 0x1FF) / T;
+    }
+
+    public static int cpuTotal(long key) {
+        return isEndgame(key) ? (int) (key >>> END_TOTAL_BITS) & END_TOTAL_MASK : (int) (key >>> TOTALS_SHIFT & 0x1FF) % T;
+    }
+
+    /** Base-6 slot code of the user's bag (0 in the endgame). */
+    public static int userSlots(long key) { return isEndgame(key) ? 0 : (int) key & SLOT_MASK; }
+    public static int cpuSlots(long key)  { return isEndgame(key) ? 0 : (int) (key >>> SLOT_BITS) & SLOT_MASK; }
+
+    /** Pending-effect codes: 0 = none, else EffectKind ordinal + 1. */
+    public static int userNext(long key) { return isEndgame(key) ? 0 : (int) (key >>> NEXT_SHIFT & 0x1F) / NEXT_CODES; }
+    public static int cpuNext(long key)  { return isEndgame(key) ? 0 : (int) (key >>> NEXT_SHIFT & 0x1F) % NEXT_CODES; }
+
+    public static boolean cpuReachedFirst(long key) { return isEndgame(key) && (key & CPU_FIRST) != 0; }
+
+    /** Game over: endgame with both totals at or above TARGET. */
+    public static boolean isOver(long key) { return isEndgame(key) && userTotal(key) >= T && cpuTotal(key) >= T; }
+
+    public static String toString(long key) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("round ").append(round(key)).append(' ').append(userTotal(key)).append(':').append(cpuTotal(key));
+        if (isEndgame(key)) return sb.append(cpuReachedFirst(key) ? " endgame, cpu first" : " endgame, user first").toString();
+        sb.append(" user [");
+        appendSlots(sb, userSlots(key));
+        sb.append("] cpu [");
+        appendSlots(sb, cpuSlots(key));
+        return sb.append("] next ").append(userNext(key)).append('/').append(cpuNext(key)).toString();
+    }
+
+    private static void appendSlots(StringBuilder sb, int code) {
+        for (int s = 0; s < EyeBag.SLOTS; s++, code /= 6) sb.append(code % 6 == 0 ? '.' : (char) ('0' + code % 6 - 1));
+    }
+}
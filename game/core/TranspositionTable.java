@@ -0,0 +1,105 @@
+package game.core;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size open-addressing map from StateKey longs to one long of payload,
+ * stored in two parallel primitive arrays: nothing is boxed and nothing is
+ * allocated after construction. A key probes at most PROBES consecutive entries
+ * from its hash; when all of them hold other keys, the home entry is replaced,
+ * so the table never fills up, it just forgets. Not thread-safe.
+ *
+ * Payload layout is the caller's business; getDouble/putDouble cover the usual
+ * "value of this position" case.
+ */
+public final class TranspositionTable {
+
+    /** Entries tried per lookup before giving up (get) or replacing (put). */
+    static final int PROBES = 8;
+    /** Marks an unused entry; StateKey never produces it. */
+    static final long EMPTY = -1L;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int mask;
+    private int size;
+    private long hits, misses, overwrites;
+
+    /** Room for at least {@code capacity} entries (rounded up to a power of two). */
+    public TranspositionTable(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("capacity " + capacity);
+        int n = Integer.highestOneBit(Math.max(PROBES, capacity - 1) << 1);
+        keys = new long[n];
+        values = new long[n];
+        mask = n - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private int home(long key) {
+        long z = key * 0x9E3779B97F4A7C15L;                // SplitMix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31)) & mask;
+    }
+
+    /** Entry holding {@code key}, or -1. */
+    private int find(long key) {
+        for (int i = 0, at = home(key); i < PROBES; i++, at = (at + 1) & mask) {
+            long k = keys[at];
+            if (k == key) return at;
+            if (k == EMPTY) return -1;
+        }
+        return -1;
+    }
+
+    public boolean contains(long key) { return find(key) >= 0; }
+
+    /** Payload stored for {@code key}, or {@code missing}. */
+    public long get(long key, long missing) {
+        int at = find(key);
+        if (at < 0) { misses++; return missing; }
+        hits++;
+        return values[at];
+    }
+
+    public double getDouble(long key, double missing) {
+        int at = find(key);
+        if (at < 0) { misses++; return missing; }
+        hits++;
+        return Double.longBitsToDouble(values[at]);
+    }
+
+    /** Stores or replaces the payload for {@code key}. */
+    public void put(long key, long value) {
+        if (key == EMPTY) throw new IllegalArgumentException("reserved key");
+        int start = home(key);
+        for (int i = 0, at = start; i < PROBES; i++, at = (at + 1) & mask) {
+            long k = keys[at];
+            if (k == key) { values[at] = value; return; }
+            if (k == EMPTY) { keys[at] = key; values[at] = value; size++; return; }
+        }
+        overwrites++;
+        keys[start] = key;
+        values[start] = value;
+    }
+
+    public void putDouble(long key, double value) { put(key, Double.doubleToRawLongBits(value)); }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hits = misses = overwrites = 0;
+    }
+
+    public int size()        { return size; }
+    public int capacity()    { return keys.length; }
+    public long hits()       { return hits; }
+    public long misses()     { return misses; }
+    /** Puts that evicted another key because its probe window was full. */
+    public long overwrites() { return overwrites; }
+
+    @Override public String toString() {
+        return String.format("TT %d/%d entries, %d hits, %d misses, %d overwrites",
+                size, keys.length, hits, misses, overwrites);
+    }
+}
@@ -0,0 +1,124 @@
+package game.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * One client, one thread: reads command lines and answers each with zero or
+ * more "EV" lines and one "OK"/"ERR" line. The connection holds at most one
+ * table at a time and detaches it when the client leaves, goes quiet for the
+ * idle timeout or disconnects, so the table can be re-joined until evicted.
+ *
+ * <pre>
+ * NEW [seed]      start a table          OK table &lt;id&gt; seed &lt;seed&gt;
+ * JOIN id         re-attach a table      OK &lt;state&gt;
+ * ROLL            CPU may spend, round   EV ... / OK &lt;state&gt;
+ * EYE slot        spend your eye         OK used &lt;effect&gt;
+ * RESET           new game, same table   OK seed &lt;seed&gt;
+ * STATE                                  OK &lt;state&gt;
+ * LEAVE           detach (table stays)   OK
+ * CLOSE           detach and drop table  OK
+ * QUIT                                   OK bye
+ * </pre>
+ */
+final class Connection implements Runnable {
+
+    private final Socket socket;
+    private final SessionRegistry registry;
+    private final int idleMillis;
+    private Table table;
+
+    Connection(Socket socket, SessionRegistry registry, int idleMillis) {
+        this.socket = socket;
+        this.registry = registry;
+        this.idleMillis = idleMillis;
+    }
+
+    @Override public void run() {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))) {
+            s.setSoTimeout(idleMillis);
+            s.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String reply;
+                try {
+                    reply = handle(line.trim());
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    // the client gets an answer and the connection stays up; the table may be mid-round
+                    System.err.println("[Connection] " + line.trim() + " failed: " + e);
+                    e.printStackTrace();
+                    String why = "internal error: " + e.getClass().getSimpleName();
+                    reply = table != null ? table.err(why) : "ERR " + why + "\n";
+                }
+                out.write(reply);
+                out.flush();
+                if (reply.equals("OK bye\n")) break;
+            }
+        } catch (SocketTimeoutException idle) {
+            // client went quiet; fall through and let go of the table
+        } catch (IOException e) {
+            // client vanished
+        } finally {
+            leave();
+        }
+    }
+
+    String handle(String line) {
+        String[] words = line.split("\\s+");
+        String cmd = words[0].toUpperCase(Locale.ROOT);
+        try {
+            switch (cmd) {
+                case "" -> { return "ERR empty command\n"; }
+                case "QUIT" -> { return "OK bye\n"; }
+                case "NEW" -> {
+                    leave();
+                    long seed = words.length > 1 ? Long.parseLong(words[1]) : 0;
+                    table = registry.create(seed);
+                    return table == null ? "ERR server full\n" : table.ok("table " + table.id + " seed " + table.seed());
+                }
+                case "JOIN" -> {
+                    if (words.length < 2) return "ERR usage: JOIN id\n";
+                    long id = Long.parseLong(words[1]);
+                    if (table != null && table.id == id) return table.ok(table.state());
+                    Table t = registry.attach(id);
+                    if (t == null) return registry.exists(id) ? "ERR table " + id + " is in use\n" : "ERR no table " + id + "\n";
+                    leave();
+                    table = t;
+                    table.touch();
+                    return table.ok(table.state());
+                }
+                default -> {}
+            }
+            if (table == null) return "ERR no table, send NEW or JOIN first\n";
+            table.touch();
+            return switch (cmd) {
+                case "ROLL"  -> table.roll();
+                case "EYE"   -> words.length < 2 ? table.err("usage: EYE slot") : table.useEye(Integer.parseInt(words[1]));
+                case "RESET" -> table.reset();
+                case "STATE" -> table.ok(table.state());
+                case "LEAVE" -> { String r = table.ok(""); leave(); yield r; }
+                case "CLOSE" -> { String r = table.ok(""); registry.close(table); table = null; yield r; }
+                default      -> table.err("unknown command " + cmd);
+            };
+        } catch (NumberFormatException e) {
+            return "ERR bad number in: " + line + "\n";
+        }
+    }
+
+    private void leave() {
+        if (table != null) {
+            table.detach();
+            table = null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package game.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.core.EyePolicy;
+
+/**
+ * All live tables by id. Connections create or attach tables here; a sweeper
+ * drops tables nobody has attached for longer than the idle timeout. To evict,
+ * the sweeper attaches the table itself and never lets go, so a table is either
+ * owned by one connection, being evicted, or free; never two at once.
+ */
+final class SessionRegistry implements AutoCloseable {
+
+    private final ConcurrentHashMap<Long, Table> tables = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final EyePolicy cpuPolicy;
+    private final long idleNanos;
+    private final int maxTables;
+    private final ScheduledExecutorService sweeper;
+
+    SessionRegistry(EyePolicy cpuPolicy, long idleMillis, int maxTables) {
+        this.cpuPolicy = cpuPolicy;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.maxTables = maxTables;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "table-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, idleMillis / 4);
+        sweeper.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** A new table, already attached to the caller, or null when the node is full. */
+    Table create(long seed) {
+        if (tables.size() >= maxTables) return null;
+        Table t = new Table(nextId.getAndIncrement(), seed, cpuPolicy);
+        t.attach();
+        tables.put(t.id, t);
+        return t;
+    }
+
+    /** The table attached to the caller, or null if it does not exist or someone else has it. */
+    Table attach(long id) {
+        Table t = tables.get(id);
+        return (t != null && t.attach()) ? t : null;
+    }
+
+    boolean exists(long id) { return tables.containsKey(id); }
+
+    /** Removes a table the caller has attached. */
+    void close(Table t) { tables.remove(t.id, t); }
+
+    int size() { return tables.size(); }
+
+    void evictIdle() {
+        long now = System.nanoTime();
+        for (Table t : tables.values())
+            if (!t.isAttached() && t.idleNanos(now) > idleNanos && t.attach())
+                tables.remove(t.id, t);
+    }
+
+    @Override public void close() { sweeper.shutdownNow(); }
+}
@@ -0,0 +1,124 @@
+package game.server;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.core.EyeBag;
+import game.core.EyePolicy;
+import game.core.GameEngine;
+
+/**
+ * One game session: an engine, the CPU's policy and its dice. A table is
+ * confined to whichever connection has attached it (at most one, via a CAS),
+ * so the command methods take no locks; handing a table to another connection
+ * goes through the same atomic flag, which publishes everything the previous
+ * owner wrote. Replies are built in a per-table buffer, with engine events
+ * first as "EV ..." lines and then one "OK ..." or "ERR ..." line.
+ */
+final class Table {
+
+    final long id;
+    private final GameEngine engine;
+    private final EyePolicy cpuPolicy;
+    private final Random cpuRng;
+    private final StringBuilder out = new StringBuilder(256);
+    private final AtomicBoolean attached = new AtomicBoolean();
+    private volatile long lastActive = System.nanoTime();
+
+    Table(long id, long seed, EyePolicy cpuPolicy) {
+        this.id = id;
+        this.engine = new GameEngine("You", "CPU", new Events(), seed);
+        this.cpuPolicy = cpuPolicy;
+        this.cpuRng = new Random(~seed);
+    }
+
+    // ----- Ownership -----
+
+    boolean attach()  { return attached.compareAndSet(false, true); }
+    void detach()     { touch(); attached.set(false); }
+    boolean isAttached() { return attached.get(); }
+    void touch()      { lastActive = System.nanoTime(); }
+    long idleNanos(long now) { return now - lastActive; }
+    long seed()       { return engine.seed(); }
+
+    // ----- Commands (owner thread only) -----
+
+    String roll() {
+        if (engine.outcome() != null) return err("game over, RESET to play again");
+        if (!engine.isEndgame()) {
+            int slot = cpuPolicy.choose(engine, engine.cpu(), cpuRng);
+            if (slot >= 0) engine.useEyeInSlot(engine.cpu(), slot);
+        }
+        engine.playRound();
+        return ok(state());
+    }
+
+    String useEye(int slot) {
+        if (engine.isEndgame()) return err("no eyes in the endgame");
+        GameEngine.PendingEffect eff = engine.useEyeInSlot(engine.user(), slot);
+        return eff == null ? err("no eye in slot " + slot) : ok("used " + eff);
+    }
+
+    String reset() {
+        engine.reset();
+        return ok("seed " + engine.seed());
+    }
+
+    String state() {
+        GameEngine.PlayerState u = engine.user(), c = engine.cpu();
+        GameEngine.Outcome outcome = engine.outcome();
+        StringBuilder sb = new StringBuilder(96);
+        sb.append("round ").append(engine.roundIndex())
+          .append(" you ").append(u.total).append(" cpu ").append(c.total)
+          .append(" phase ").append(outcome != null ? "over" : engine.isEndgame() ? "endgame" : "normal")
+          .append(" eyes ");
+        EyeBag bag = u.eyes();
+        for (int s = 0; s < EyeBag.SLOTS; s++) sb.append(letter(bag.kindAt(s)));
+        sb.append(" cpu-eyes ").append(c.eyeCount())
+          .append(" next ").append(u.nextEffect == null ? "none" : u.nextEffect.toString().replace(' ', '_'));
+        if (outcome != null) sb.append(" result ").append(outcome);
+        return sb.toString();
+    }
+
+    private static char letter(GameEngine.EffectKind k) {
+        if (k == null) return '.';
+        return switch (k) {
+            case OPP_DIVIDE_TOTAL   -> 'R';
+            case OPP_SUBTRACT_ROLL  -> 'Y';
+            case SELF_ADD_ROLL      -> 'G';
+            case SELF_MULTIPLY_ROLL -> 'B';
+            case SELF_SUBTRACT_ROLL -> 'P';
+        };
+    }
+
+    /** Ends a reply: buffered events plus the status line, and clears the buffer. */
+    String ok(String text)  { return finish(text.isEmpty() ? "OK" : "OK " + text); }
+    String err(String text) { return finish("ERR " + text); }
+
+    private String finish(String status) {
+        out.append(status).append('\n');
+        String reply = out.toString();
+        out.setLength(0);
+        return reply;
+    }
+
+    private void event(String line) { out.append("EV ").append(line).append('\n'); }
+
+    private class Events implements GameEngine.Listener {
+        @Override public void onRoll(GameEngine.PlayerState who, int base, int fin, GameEngine.PendingEffect used) {
+            event((who == engine.user() ? "you" : "cpu") + " rolled " + base + " " + fin);
+        }
+        @Override public void onEyeGranted(GameEngine.PlayerState who, GameEngine.PendingEffect granted, int slot) {
+            event(who == engine.user() ? "eye " + slot + " " + letter(granted.kind) : "cpu gained an eye");
+        }
+        @Override public void onEffectChosen(GameEngine.PlayerState who, GameEngine.PendingEffect eff) {
+            if (who == engine.cpu()) event("cpu used " + letter(eff.kind));
+        }
+        @Override public void onEndgameTriggered(GameEngine.PlayerState first) {
+            event("endgame " + (first == engine.user() ? "you" : "cpu"));
+        }
+        @Override public void onGameOver(GameEngine.Outcome outcome, GameEngine.PlayerState u, GameEngine.PlayerState c) {
+            event("over " + outcome);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package game.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import game.core.CpuPolicy;
+import game.core.EyePolicy;
+
+/**
+ * Serves many tables from one JVM over a local line protocol (see Connection).
+ * Every connection gets its own thread: a virtual thread when the runtime has
+ * them, otherwise a daemon thread from a cached pool. The executor is looked up
+ * reflectively so the same build runs on 17 and picks virtual threads up on 21+.
+ *
+ * Usage: java game.server.TableServer [port] [cpuPolicy] [idleSeconds] [maxTables]
+ */
+public final class TableServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7421;
+
+    private final ServerSocket server;
+    private final SessionRegistry registry;
+    private final ExecutorService connections = connectionExecutor();
+    private final int idleMillis;
+
+    public TableServer(int port, EyePolicy cpuPolicy, int idleMillis, int maxTables) throws IOException {
+        this.server = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+        this.registry = new SessionRegistry(cpuPolicy, idleMillis, maxTables);
+        this.idleMillis = idleMillis;
+    }
+
+    public int port() { return server.getLocalPort(); }
+    public int tables() { return registry.size(); }
+
+    /** Accepts connections until the server socket is closed. */
+    public void serve() throws IOException {
+        while (!server.isClosed()) {
+            Socket s;
+            try {
+                s = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed()) return;
+                throw e;
+            }
+            connections.execute(new Connection(s, registry, idleMillis));
+        }
+    }
+
+    @Override public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+        registry.close();
+    }
+
+    /** Virtual-thread-per-task if available (Java 21+), else a cached pool of daemon threads. */
+    static ExecutorService connectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "table-conn-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String policy = args.length > 1 ? args[1] : "table";
+        int idleSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int maxTables = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        if (policy.equals("table")) CpuPolicy.warmUp();
+        try (TableServer ts = new TableServer(port, EyePolicy.byName(policy), idleSeconds * 1000, maxTables)) {
+            System.out.printf("Serving tables on 127.0.0.1:%d (cpu %s, idle %ds, max %d)%n",
+                    ts.port(), policy, idleSeconds, maxTables);
+            ts.serve();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package game.sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import game.core.EyePolicy;
+import game.core.GameEngine;
+
+/**
+ * Measures heap bytes allocated per steady-state round of a listener-less
+ * GameEngine (grants, eye use, snapshot/restore, endgame and resets included), using the JVM's
+ * per-thread allocation counter. Exits with status 1 if anything is allocated.
+ *
+ * Usage: java game.sim.AllocationCheck [rounds]
+ */
+public class AllocationCheck {
+
+    private static final int WARMUP_ROUNDS = 2_000_000;
+
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000L;
+        com.sun.management.ThreadMXBean mx =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!mx.isThreadAllocatedMemorySupported()) {
+            System.err.println("Per-thread allocation counter not supported by this JVM");
+            return;
+        }
+        GameEngine engine = new GameEngine("You", "CPU", null, 42);
+        Random rng = new Random(42);
+        EyePolicy user = EyePolicy.firstEye(0.5), cpu = EyePolicy.firstEye(0.6);
+
+        play(engine, user, cpu, rng, WARMUP_ROUNDS); // let the JIT settle first
+        long tid = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(tid);
+        play(engine, user, cpu, rng, rounds);
+        long after = mx.getThreadAllocatedBytes(tid);
+
+        double perRound = (double) (after - before) / rounds;
+        System.out.printf("%d rounds, %d bytes allocated, %.4f bytes/round%n", rounds, after - before, perRound);
+        if (after > before) System.exit(1);
+    }
+
+    private static void play(GameEngine engine, EyePolicy user, EyePolicy cpu, Random rng, long rounds) {
+        for (long i = 0; i < rounds; i++) {
+            if (!engine.isEndgame()) {
+                int u = user.choose(engine, engine.user(), rng);
+                if (u >= 0) engine.useEyeInSlot(engine.user(), u);
+                int c = cpu.choose(engine, engine.cpu(), rng);
+                if (c >= 0) engine.useEyeInSlot(engine.cpu(), c);
+            }
+            engine.restore(engine.snapshot()); // a StateKey round trip, as searches do
+            if (!engine.playRound()) engine.reset();
+        }
+    }
+}
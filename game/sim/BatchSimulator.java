@@ -0,0 +1,197 @@
+package game.sim;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import game.core.DiceSource;
+import game.core.EyePolicy;
+import game.core.GameEngine;
+import game.core.MctsPolicy;
+import game.core.SearchPolicy;
+
+/**
+ * Headless driver: plays complete games (playRound until it returns false) with
+ * pluggable eye policies, spread over a fork-join pool. Each game gets its own
+ * seed derived from the master seed, so a run is reproducible regardless of how
+ * the range gets split; per-task histograms are merged on the way back up.
+ * Each leaf task owns one engine and one dice source (see DiceSource.byName)
+ * and re-seeds them per game, so the thread count never changes a result.
+ *
+ * Usage: java game.sim.BatchSimulator [games] [masterSeed] [userPolicy] [cpuPolicy] [threads] [dice]
+ */
+public class BatchSimulator {
+
+    /** Games handled by one leaf task before it stops splitting. */
+    private static final int LEAF_GAMES = 4096;
+
+    private final EyePolicy userPolicy, cpuPolicy;
+    private final int parallelism;
+    private final String dice;
+
+    public BatchSimulator(EyePolicy userPolicy, EyePolicy cpuPolicy, int parallelism) {
+        this(userPolicy, cpuPolicy, parallelism, "random");
+    }
+
+    public BatchSimulator(EyePolicy userPolicy, EyePolicy cpuPolicy, int parallelism, String dice) {
+        this.userPolicy = userPolicy;
+        this.cpuPolicy = cpuPolicy;
+        this.parallelism = Math.max(1, parallelism);
+        this.dice = dice;
+        DiceSource.byName(dice, 1); // fail fast on a bad name
+    }
+
+    /** Plays {@code games} games and returns the merged statistics. */
+    public Stats run(long games, long masterSeed) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new Batch(masterSeed, 0, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Seed of game {@code i}: SplitMix64 finalizer over the master seed (never 0, which GameEngine treats as "random"). */
+    static long gameSeed(long masterSeed, long i) {
+        long z = masterSeed + (i + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return z == 0 ? 1 : z;
+    }
+
+    /** Plays one full game on {@code engine} (reset to {@code seed}) into {@code stats}. */
+    void playGame(GameEngine engine, Random rng, long seed, Stats stats) {
+        engine.reset(seed);
+        rng.setSeed(~seed);
+        GameEngine.PlayerState user = engine.user(), cpu = engine.cpu();
+        int userSpent = 0, cpuSpent = 0, rounds = 0;
+        boolean more = true;
+        while (more) {
+            if (!engine.isEndgame()) {
+                if (spend(engine, user, userPolicy, rng)) userSpent++;
+                if (spend(engine, cpu, cpuPolicy, rng)) cpuSpent++;
+            }
+            more = engine.playRound();
+            rounds++;
+        }
+        stats.record(engine.outcome(), user.total, cpu.total, rounds, userSpent, cpuSpent);
+    }
+
+    private static boolean spend(GameEngine engine, GameEngine.PlayerState who, EyePolicy policy, Random rng) {
+        int slot = policy.choose(engine, who, rng);
+        return slot >= 0 && engine.useEyeInSlot(who, slot) != null;
+    }
+
+    private class Batch extends RecursiveTask<Stats> {
+        private final long masterSeed, from, to;
+
+        Batch(long masterSeed, long from, long to) {
+            this.masterSeed = masterSeed; this.from = from; this.to = to;
+        }
+
+        @Override protected Stats compute() {
+            if (to - from <= LEAF_GAMES) {
+                Stats s = new Stats();
+                GameEngine engine = new GameEngine("You", "CPU", null, DiceSource.byName(dice, 1), 1);
+                Random rng = new Random();
+                for (long i = from; i < to; i++) playGame(engine, rng, gameSeed(masterSeed, i), s);
+                return s;
+            }
+            long mid = (from + to) >>> 1;
+            Batch left = new Batch(masterSeed, from, mid);
+            left.fork();
+            Stats right = new Batch(masterSeed, mid, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /** Per-task counters and histograms; merged pairwise, never shared between threads. */
+    public static class Stats {
+        /** Histogram buckets; the last one collects everything at or above it. */
+        public static final int MAX_ROUNDS = 64, MAX_EYES = 32, MAX_TOTAL = 40;
+
+        public long games, userWins, cpuWins, ties;
+        public final long[] rounds = new long[MAX_ROUNDS];
+        public final long[] userEyesUsed = new long[MAX_EYES];
+        public final long[] cpuEyesUsed = new long[MAX_EYES];
+        public final long[] userFinal = new long[MAX_TOTAL];
+        public final long[] cpuFinal = new long[MAX_TOTAL];
+
+        void record(GameEngine.Outcome outcome, int userTotal, int cpuTotal, int roundCount, int userSpent, int cpuSpent) {
+            games++;
+            switch (outcome) {
+                case USER_WINS -> userWins++;
+                case CPU_WINS  -> cpuWins++;
+                case TIE       -> ties++;
+            }
+            rounds[Math.min(roundCount, MAX_ROUNDS - 1)]++;
+            userEyesUsed[Math.min(userSpent, MAX_EYES - 1)]++;
+            cpuEyesUsed[Math.min(cpuSpent, MAX_EYES - 1)]++;
+            userFinal[Math.min(userTotal, MAX_TOTAL - 1)]++;
+            cpuFinal[Math.min(cpuTotal, MAX_TOTAL - 1)]++;
+        }
+
+        Stats merge(Stats o) {
+            games += o.games; userWins += o.userWins; cpuWins += o.cpuWins; ties += o.ties;
+            add(rounds, o.rounds);
+            add(userEyesUsed, o.userEyesUsed);
+            add(cpuEyesUsed, o.cpuEyesUsed);
+            add(userFinal, o.userFinal);
+            add(cpuFinal, o.cpuFinal);
+            return this;
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+
+        public double userWinRate() { return games == 0 ? 0 : (double) userWins / games; }
+        public double cpuWinRate()  { return games == 0 ? 0 : (double) cpuWins / games; }
+        public double tieRate()     { return games == 0 ? 0 : (double) ties / games; }
+
+        public static double mean(long[] hist) {
+            long n = 0, sum = 0;
+            for (int i = 0; i < hist.length; i++) { n += hist[i]; sum += (long) i * hist[i]; }
+            return n == 0 ? 0 : (double) sum / n;
+        }
+
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("games %d  user %.4f  cpu %.4f  tie %.4f%n",
+                    games, userWinRate(), cpuWinRate(), tieRate()));
+            sb.append(String.format("mean rounds %.3f  mean eyes used: user %.3f cpu %.3f%n",
+                    mean(rounds), mean(userEyesUsed), mean(cpuEyesUsed)));
+            appendHist(sb, "rounds", rounds);
+            appendHist(sb, "user eyes used", userEyesUsed);
+            appendHist(sb, "cpu eyes used", cpuEyesUsed);
+            appendHist(sb, "user final total", userFinal);
+            appendHist(sb, "cpu final total", cpuFinal);
+            return sb.toString();
+        }
+
+        private void appendHist(StringBuilder sb, String title, long[] hist) {
+            sb.append(title).append(':');
+            for (int i = 0; i < hist.length; i++)
+                if (hist[i] != 0) sb.append(' ').append(i).append('=').append(hist[i]);
+            sb.append('\n');
+        }
+    }
+
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 2025L;
+        EyePolicy user = EyePolicy.byName(args.length > 2 ? args[2] : "hold");
+        EyePolicy cpu = EyePolicy.byName(args.length > 3 ? args[3] : "first60");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        String dice = args.length > 5 ? args[5] : "random";
+
+        long t0 = System.nanoTime();
+        Stats stats = new BatchSimulator(user, cpu, threads, dice).run(games, seed);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.print(stats);
+        System.out.printf("%.2fs on %d threads, %s dice (%.0f games/s)%n", secs, threads, dice, games / secs);
+        for (EyePolicy p : new EyePolicy[] { user, cpu })
+            if (p instanceof SearchPolicy || p instanceof MctsPolicy) System.out.println(p);
+    }
+}
@@ -0,0 +1,148 @@
+package game.sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import game.core.EyePolicy;
+import game.core.GameEngine;
+
+/**
+ * Append-only binary record of games, enough to re-drive a GameEngine exactly
+ * (see JournalReplayer). A file is the magic number followed by games:
+ *
+ * <pre>
+ * 'G' seed:long                      game starts, GameEngine.reset(seed)
+ *   0x10|slot                        user spends the eye in slot
+ *   0x20|slot                        cpu spends the eye in slot
+ *   'R'                              playRound()
+ *   ...
+ * 'E' outcome:u8 user:u8 cpu:u8 rounds:u16 crc:int
+ * </pre>
+ *
+ * outcome is an Outcome ordinal or UNFINISHED; crc is a CRC32 over both totals
+ * after every round. Events are buffered in a direct buffer and written through
+ * the channel when it fills or on flush(), so a typical game costs ~30 bytes.
+ * Not thread-safe; one journal per writer.
+ */
+public final class GameJournal implements Closeable {
+
+    static final int MAGIC = 0x45594A31;   // "EYJ1"
+    static final byte GAME = 'G', ROUND = 'R', END = 'E';
+    static final int USER_EYE = 0x10, CPU_EYE = 0x20, SLOT_MASK = 0x0F;
+    /** Outcome byte of a game that was abandoned before it finished. */
+    static final int UNFINISHED = 0xFF;
+
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+    private final CRC32 crc = new CRC32();
+    private int rounds;
+    private boolean inGame;
+
+    /** Opens (or creates) {@code file} for appending. */
+    public GameJournal(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) buf.putInt(MAGIC);
+    }
+
+    public boolean inGame() { return inGame; }
+
+    public void startGame(long seed) throws IOException {
+        if (inGame) throw new IllegalStateException("previous game not ended");
+        room(9);
+        buf.put(GAME).putLong(seed);
+        crc.reset();
+        rounds = 0;
+        inGame = true;
+    }
+
+    public void userEye(int slot) throws IOException { event(USER_EYE | slot); }
+    public void cpuEye(int slot) throws IOException  { event(CPU_EYE | slot); }
+
+    /** Records a playRound() call; pass the totals it left behind. */
+    public void round(int userTotal, int cpuTotal) throws IOException {
+        event(ROUND);
+        crc.update(userTotal);
+        crc.update(cpuTotal);
+        rounds++;
+    }
+
+    public void round(GameEngine engine) throws IOException { round(engine.user().total, engine.cpu().total); }
+
+    /** Closes the current game; {@code outcome} is null if it was abandoned. */
+    public void endGame(GameEngine.Outcome outcome, int userTotal, int cpuTotal) throws IOException {
+        if (!inGame) throw new IllegalStateException("no game started");
+        room(10);
+        buf.put(END).put((byte) (outcome == null ? UNFINISHED : outcome.ordinal()))
+           .put((byte) userTotal).put((byte) cpuTotal)
+           .putShort((short) Math.min(rounds, 0xFFFF)).putInt((int) crc.getValue());
+        inGame = false;
+    }
+
+    public void endGame(GameEngine engine) throws IOException {
+        endGame(engine.outcome(), engine.user().total, engine.cpu().total);
+    }
+
+    private void event(int code) throws IOException {
+        if (!inGame) throw new IllegalStateException("no game started");
+        room(1);
+        buf.put((byte) code);
+    }
+
+    private void room(int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush();
+    }
+
+    /** Writes everything buffered so far to the file. */
+    public void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    @Override public void close() throws IOException {
+        try { flush(); } finally { channel.close(); }
+    }
+
+    /**
+     * Records simulated games, e.g. to feed the replayer.
+     * Usage: java game.sim.GameJournal file [games] [seed] [userPolicy] [cpuPolicy]
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[0]);
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000L;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 2025L;
+        EyePolicy user = EyePolicy.byName(args.length > 3 ? args[3] : "first50");
+        EyePolicy cpu = EyePolicy.byName(args.length > 4 ? args[4] : "first60");
+
+        GameEngine engine = new GameEngine("You", "CPU", null, seed);
+        Random rng = new Random(~seed);
+        long t0 = System.nanoTime(), rounds = 0;
+        try (GameJournal journal = new GameJournal(file)) {
+            for (long g = 0; g < games; g++) {
+                engine.reset(BatchSimulator.gameSeed(seed, g));
+                journal.startGame(engine.seed());
+                boolean more = true;
+                while (more) {
+                    if (!engine.isEndgame()) {
+                        int u = user.choose(engine, engine.user(), rng);
+                        if (u >= 0 && engine.useEyeInSlot(engine.user(), u) != null) journal.userEye(u);
+                        int c = cpu.choose(engine, engine.cpu(), rng);
+                        if (c >= 0 && engine.useEyeInSlot(engine.cpu(), c) != null) journal.cpuEye(c);
+                    }
+                    more = engine.playRound();
+                    journal.round(engine);
+                    rounds++;
+                }
+                journal.endGame(engine);
+            }
+        }
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d games, %d rounds recorded to %s in %.2fs%n", games, rounds, file, secs);
+    }
+}
@@ -0,0 +1,153 @@
+package game.sim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import game.core.GameEngine;
+
+/**
+ * Re-drives one GameEngine through every game in a GameJournal file: reset to
+ * the recorded seed, spend the recorded slots, call playRound, and compare the
+ * totals checksum, final totals and outcome with what was recorded. Under the
+ * rules the games were played with everything matches; after a rules change the
+ * mismatches are exactly the games that now end differently.
+ *
+ * The engine is reused and the file is streamed through one buffer, so replay
+ * is allocation-free per game. Pass a Listener to watch the games (e.g. to
+ * rebuild a text log of a disputed one), or null to run at full speed.
+ *
+ * Usage: java game.sim.JournalReplayer file [--listen]
+ */
+public final class JournalReplayer {
+
+    /** Told about each replayed game; {@code recorded} is null if it was abandoned or truncated. */
+    public interface Visitor {
+        void onGame(long index, long seed, GameEngine engine, GameEngine.Outcome recorded, boolean matches);
+    }
+
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+
+    private final GameEngine engine;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private boolean eof;
+
+    public JournalReplayer(GameEngine.Listener listener) {
+        engine = new GameEngine("You", "CPU", listener, 1);
+    }
+
+    public Summary replay(Path file, Visitor visitor) throws IOException {
+        Summary sum = new Summary();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel = ch;
+            eof = false;
+            buf.clear().flip();
+            if (!need(4) || buf.getInt() != GameJournal.MAGIC)
+                throw new IOException("not a game journal: " + file);
+            while (need(9)) {
+                if (buf.get() != GameJournal.GAME) throw new IOException("corrupt journal at game " + sum.games);
+                replayGame(buf.getLong(), sum, visitor);
+            }
+            if (buf.hasRemaining()) sum.truncated++;
+        } finally {
+            channel = null;
+        }
+        return sum;
+    }
+
+    private void replayGame(long seed, Summary sum, Visitor visitor) throws IOException {
+        engine.reset(seed);
+        crc.reset();
+        GameEngine.PlayerState user = engine.user(), cpu = engine.cpu();
+        boolean more = true, ok = true;
+        int rounds = 0;
+        GameEngine.Outcome recorded = null;
+        while (true) {
+            if (!need(1)) { truncated(sum); break; }
+            int b = buf.get() & 0xFF;
+            if (b == GameJournal.ROUND) {
+                if (!more) { ok = false; continue; }
+                more = engine.playRound();
+                crc.update(user.total);
+                crc.update(cpu.total);
+                rounds++;
+            } else if ((b & ~GameJournal.SLOT_MASK) == GameJournal.USER_EYE) {
+                ok &= engine.useEyeInSlot(user, b & GameJournal.SLOT_MASK) != null;
+            } else if ((b & ~GameJournal.SLOT_MASK) == GameJournal.CPU_EYE) {
+                ok &= engine.useEyeInSlot(cpu, b & GameJournal.SLOT_MASK) != null;
+            } else if (b == GameJournal.END) {
+                if (!need(9)) { truncated(sum); break; }
+                int o = buf.get() & 0xFF;
+                int u = buf.get() & 0xFF, c = buf.get() & 0xFF;
+                int r = buf.getShort() & 0xFFFF;
+                int check = buf.getInt();
+                recorded = o < OUTCOMES.length ? OUTCOMES[o] : null;
+                ok &= recorded == engine.outcome() && u == user.total && c == cpu.total
+                        && r == Math.min(rounds, 0xFFFF) && check == (int) crc.getValue();
+                break;
+            } else {
+                throw new IOException("corrupt journal at game " + sum.games + ": event 0x" + Integer.toHexString(b));
+            }
+        }
+        sum.games++;
+        sum.rounds += rounds;
+        if (!ok) sum.mismatches++;
+        GameEngine.Outcome now = engine.outcome();
+        if (now == null) sum.unfinished++;
+        else switch (now) {
+            case USER_WINS -> sum.userWins++;
+            case CPU_WINS  -> sum.cpuWins++;
+            case TIE       -> sum.ties++;
+        }
+        if (visitor != null) visitor.onGame(sum.games - 1, seed, engine, recorded, ok);
+    }
+
+    private void truncated(Summary sum) {
+        sum.truncated++;
+        buf.position(buf.limit());                          // the partial record is all that is left
+    }
+
+    /** True once {@code bytes} bytes are buffered; false at end of file. */
+    private boolean need(int bytes) throws IOException {
+        while (buf.remaining() < bytes) {
+            if (eof) return false;
+            buf.compact();
+            eof = channel.read(buf) < 0;
+            buf.flip();
+        }
+        return true;
+    }
+
+    /** Replayed outcomes (under today's rules) and how many games disagree with their record. */
+    public static final class Summary {
+        public long games, rounds, userWins, cpuWins, ties, unfinished, mismatches, truncated;
+
+        @Override public String toString() {
+            return String.format("games %d  rounds %d  user %d  cpu %d  tie %d  unfinished %d  mismatches %d  truncated %d",
+                    games, rounds, userWins, cpuWins, ties, unfinished, mismatches, truncated);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[0]);
+        boolean listen = args.length > 1 && args[1].equals("--listen");
+        GameEngine.Listener listener = listen ? new GameEngine.Listener() {
+            long events;
+            @Override public void onRoll(GameEngine.PlayerState who, int base, int fin, GameEngine.PendingEffect used) { events++; }
+            @Override public void onGameOver(GameEngine.Outcome outcome, GameEngine.PlayerState u, GameEngine.PlayerState c) { events++; }
+        } : null;
+
+        JournalReplayer replayer = new JournalReplayer(listener);
+        replayer.replay(file, null);                       // warm-up pass
+        long t0 = System.nanoTime();
+        Summary sum = replayer.replay(file, null);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.println(sum);
+        System.out.printf("%.3fs, %.1fM rounds/s (listeners %s)%n", secs, sum.rounds / secs / 1e6, listen ? "on" : "off");
+    }
+}
@@ -0,0 +1,157 @@
+package game.ui;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * One Swing timer, ticking once per display frame, that advances every running
+ * animation. Each animation belongs to a target component, or to any key for
+ * one that repaints what it changes itself (a slot of a component, say), and a
+ * target runs at most one: starting another on it replaces the first, so two
+ * effects can no longer fight over the same eye. After every animation has
+ * advanced, each target component is repainted once, and RepaintManager paints
+ * them all in one pass. The timer only runs while something is animating.
+ *
+ * EDT only, like the components it animates. Frame rate: the display's refresh
+ * rate, 60 if unknown, or -Deye.fps=N.
+ */
+public final class AnimationClock {
+
+    /** One animation; {@code elapsedNanos} counts from its start. */
+    @FunctionalInterface
+    public interface Animation {
+        /** Advances to {@code elapsedNanos}; false once finished, after which it is dropped. */
+        boolean frame(long elapsedNanos);
+
+        /** This animation, then {@code next} from the frame this one finishes on. */
+        default Animation then(Animation next) {
+            long[] handover = { -1 };
+            return elapsed -> {
+                if (handover[0] < 0) {
+                    if (frame(elapsed)) return true;
+                    handover[0] = elapsed;
+                }
+                return next.frame(elapsed - handover[0]);
+            };
+        }
+    }
+
+    private static final AnimationClock SHARED = new AnimationClock(Integer.getInteger("eye.fps", displayHz()));
+
+    public static AnimationClock shared() { return SHARED; }
+
+    private static final class Running {
+        final Animation animation;
+        final JComponent repaint;                     // null: the animation repaints itself
+        final long start;
+        Running(Animation animation, JComponent repaint, long start) {
+            this.animation = animation;
+            this.repaint = repaint;
+            this.start = start;
+        }
+    }
+
+    private final Map<Object, Running> running = new LinkedHashMap<>();
+    private final List<JComponent> toRepaint = new ArrayList<>();
+    private final Timer timer;
+    private final long periodNanos;
+    private final int fps;
+
+    private long frames, lateFrames, busyNanos, maxBusyNanos, lastTick;
+
+    public AnimationClock(int fps) {
+        this.fps = Math.max(1, fps);
+        int period = Math.max(1, 1000 / this.fps);         // whole milliseconds: 60 fps ticks every 16 ms
+        periodNanos = period * 1_000_000L;
+        timer = new Timer(period, e -> tick());
+        timer.setCoalesce(true);                       // a late EDT drops ticks rather than bunching them
+    }
+
+    /** Runs {@code animation} on {@code target}, replacing whatever was running there; its first frame is drawn now. */
+    public void start(JComponent target, Animation animation) {
+        start(target, target, animation);
+    }
+
+    /** Runs {@code animation} under {@code key}, replacing whatever ran under it; the animation repaints what it changes. */
+    public void start(Object key, Animation animation) {
+        start(key, null, animation);
+    }
+
+    private void start(Object key, JComponent repaint, Animation animation) {
+        checkEdt();
+        long now = System.nanoTime();
+        running.remove(key);
+        if (!animation.frame(0)) return;
+        running.put(key, new Running(animation, repaint, now));
+        if (repaint != null) repaint.repaint();
+        if (!timer.isRunning()) {
+            lastTick = now;
+            timer.start();
+        }
+    }
+
+    /** Stops whatever is running on {@code key}, leaving it as its last frame left it. */
+    public void cancel(Object key) {
+        checkEdt();
+        running.remove(key);
+        if (running.isEmpty()) timer.stop();
+    }
+
+    public boolean isAnimating(Object key) { return running.containsKey(key); }
+
+    private void tick() {
+        long now = System.nanoTime();
+        if (now - lastTick > periodNanos * 3 / 2) lateFrames++;
+        lastTick = now;
+
+        for (Iterator<Running> it = running.values().iterator(); it.hasNext(); ) {
+            Running r = it.next();
+            if (!r.animation.frame(now - r.start)) it.remove();
+            if (r.repaint != null) toRepaint.add(r.repaint);
+        }
+        for (int i = 0; i < toRepaint.size(); i++) toRepaint.get(i).repaint();
+        toRepaint.clear();
+        if (running.isEmpty()) timer.stop();
+
+        long busy = System.nanoTime() - now;
+        frames++;
+        busyNanos += busy;
+        if (busy > maxBusyNanos) maxBusyNanos = busy;
+    }
+
+    private static void checkEdt() {
+        if (!SwingUtilities.isEventDispatchThread())
+            throw new IllegalStateException("AnimationClock is EDT-only");
+    }
+
+    private static int displayHz() {
+        if (GraphicsEnvironment.isHeadless()) return 60;
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+        int hz = mode.getRefreshRate();
+        return hz == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : hz;
+    }
+
+    // ----- Stats (read on the EDT) -----
+
+    public int active()            { return running.size(); }
+    public long frames()           { return frames; }
+    /** Ticks that came more than half a period late. */
+    public long lateFrames()       { return lateFrames; }
+    public long maxFrameNanos()    { return maxBusyNanos; }
+    public double avgFrameNanos()  { return frames == 0 ? 0 : (double) busyNanos / frames; }
+    public int fps()               { return fps; }
+
+    @Override public String toString() {
+        return String.format("animations: %d active, %d frames at %d fps (%d late), %.3f ms avg / %.3f ms max per frame",
+                active(), frames(), fps(), lateFrames(), avgFrameNanos() / 1e6, maxFrameNanos() / 1e6);
+    }
+}
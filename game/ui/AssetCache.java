@@ -0,0 +1,215 @@
+package game.ui;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.imageio.ImageIO;
+
+/**
+ * Decoded images for every screen, so a resize or a screen switch never goes
+ * back to the disk. Names come from an AssetPack when there is one (see
+ * AssetPack.openDefault), where finding one is an index lookup. Otherwise,
+ * in dev mode or for a name the pack lacks (one added since it was built),
+ * they are loose files, looked up once (classpath first, then the
+ * same working-directory prefixes GameClass always probed) with the answer,
+ * including "not there", kept in a path index. Decoded images live in an LRU bounded
+ * by pixel bytes; what falls out of it is kept behind a SoftReference until the
+ * GC wants the memory back, and comes back without a decode if it is still there.
+ *
+ * Images are shared: callers draw from them and never draw into them.
+ * Thread-safe; two threads missing the same name at once may both decode it.
+ */
+public final class AssetCache {
+
+    /** Working-directory prefixes tried for a relative name, in order. */
+    private static final String[] PREFIXES = { "", "Eye For An Eye/", "./Eye For An Eye/", "./" };
+    /** Default LRU budget; override with -Deye.assets.cacheMB=N. */
+    private static final long DEFAULT_BUDGET = Long.getLong("eye.assets.cacheMB", 96) << 20;
+    private static final Object MISSING = new Object();
+
+    private static final AssetCache SHARED = new AssetCache(DEFAULT_BUDGET, AssetPack.openDefault());
+
+    public static AssetCache shared() { return SHARED; }
+
+    private final long budgetBytes;
+    private final AssetPack pack;                                                   // null: loose files
+    private final Map<String, Object> paths = new ConcurrentHashMap<>();            // name -> URL or MISSING
+    private final LinkedHashMap<String, BufferedImage> lru = new LinkedHashMap<>(32, 0.75f, true);
+    private final Map<String, SoftReference<BufferedImage>> evicted = new ConcurrentHashMap<>();
+    private long lruBytes;
+
+    private final LongAdder hits = new LongAdder(), softHits = new LongAdder(), misses = new LongAdder(), absent = new LongAdder();
+    private final LongAdder decodes = new LongAdder(), decodeNanos = new LongAdder(), evictions = new LongAdder();
+
+    public AssetCache(long budgetBytes) { this(budgetBytes, null); }
+
+    /** A cache over {@code pack}'s entries, or over loose files if it is null. */
+    public AssetCache(long budgetBytes, AssetPack pack) {
+        this.budgetBytes = budgetBytes;
+        this.pack = pack;
+    }
+
+    /** The pack names are read from first, or null when they are all loose files. */
+    public AssetPack pack() { return pack; }
+
+    /** The decoded image for a relative name such as "assets/table.png", or null if there is none. */
+    public BufferedImage image(String name) { return image(name, true); }
+
+    /**
+     * As image(name), except that with {@code keep} false a fresh decode is
+     * handed over without entering the cache: for sources that are only ever
+     * drawn scaled, whose scaled copies ImageScaler keeps instead.
+     */
+    public BufferedImage image(String name, boolean keep) {
+        synchronized (lru) {
+            BufferedImage img = lru.get(name);
+            if (img != null) { hits.increment(); return img; }
+        }
+        if (!exists(name)) { absent.increment(); return null; }          // answered by the pack or path index
+        SoftReference<BufferedImage> ref = keep ? evicted.remove(name) : evicted.get(name);
+        BufferedImage img = ref != null ? ref.get() : null;
+        if (img != null) {
+            softHits.increment();
+        } else {
+            misses.increment();
+            img = decode(name);
+            if (img == null) return null;
+        }
+        if (keep) put(name, img);
+        return img;
+    }
+
+    /** First of several names that exists, decoded; null if none do. */
+    public BufferedImage firstImage(String... names) {
+        for (String n : names) {
+            BufferedImage img = image(n);
+            if (img != null) return img;
+        }
+        return null;
+    }
+
+    /** Where a name resolves to (cached after the first probe), or null. */
+    public URL locate(String name) {
+        if (inPack(name)) return pack.url(name);
+        Object where = paths.computeIfAbsent(name, AssetCache::probe);
+        return where == MISSING ? null : (URL) where;
+    }
+
+    /**
+     * SHA-256 of the asset's file, the same whether it is read loose or from a
+     * pack (which stores the hash of the file it packed, pixels or not); null
+     * if there is no such asset or it cannot be read. For cache keys.
+     */
+    public byte[] contentHash(String name) {
+        if (inPack(name)) return pack.sourceHash(name);
+        URL url = locate(name);
+        if (url == null) return null;
+        try (InputStream in = url.openStream()) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) > 0; ) md.update(buf, 0, n);
+            return md.digest();
+        } catch (IOException e) {
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean exists(String name) {
+        return locate(name) != null;
+    }
+
+    private boolean inPack(String name) {
+        return pack != null && pack.contains(name);
+    }
+
+    private static Object probe(String name) {
+        URL res = AssetCache.class.getResource("/" + name);
+        if (res != null) return res;
+        for (String pfx : PREFIXES) {
+            File f = new File(pfx + name);
+            if (f.isFile()) {
+                try {
+                    return f.toURI().toURL();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return MISSING;
+    }
+
+    private BufferedImage decode(String name) {
+        if (!exists(name)) return null;
+        long t0 = System.nanoTime();
+        try {
+            if (inPack(name)) return pack.image(name);
+            try (InputStream in = locate(name).openStream()) {
+                return ImageIO.read(in);
+            }
+        } catch (IOException e) {
+            return null;
+        } finally {
+            decodes.increment();
+            decodeNanos.add(System.nanoTime() - t0);
+        }
+    }
+
+    private void put(String name, BufferedImage img) {
+        synchronized (lru) {
+            if (lru.put(name, img) == null) lruBytes += bytes(img);
+            // keep the newest entry even when it alone exceeds the budget
+            for (Iterator<Map.Entry<String, BufferedImage>> it = lru.entrySet().iterator();
+                 lruBytes > budgetBytes && lru.size() > 1 && it.hasNext(); ) {
+                Map.Entry<String, BufferedImage> e = it.next();
+                if (e.getKey().equals(name)) continue;
+                it.remove();
+                lruBytes -= bytes(e.getValue());
+                evicted.put(e.getKey(), new SoftReference<>(e.getValue()));
+                evictions.increment();
+            }
+        }
+    }
+
+    private static long bytes(BufferedImage img) {
+        return (long) img.getWidth() * img.getHeight() * Math.max(1, img.getColorModel().getPixelSize() / 8);
+    }
+
+    /** Drops every decoded image (the path index stays). */
+    public void clear() {
+        synchronized (lru) {
+            lru.clear();
+            lruBytes = 0;
+        }
+        evicted.clear();
+    }
+
+    public long hits()        { return hits.sum(); }
+    public long softHits()    { return softHits.sum(); }
+    public long misses()      { return misses.sum(); }
+    /** Lookups of names that do not exist. */
+    public long absent()      { return absent.sum(); }
+    public long decodes()     { return decodes.sum(); }
+    public long decodeNanos() { return decodeNanos.sum(); }
+    public long evictions()   { return evictions.sum(); }
+
+    public long cachedBytes() {
+        synchronized (lru) { return lruBytes; }
+    }
+
+    @Override public String toString() {
+        return String.format("assets: %d hits, %d soft hits, %d misses, %d absent, %d decodes (%.1f ms), %d evictions, %.1f/%d MB",
+                hits(), softHits(), misses(), absent(), decodes(), decodeNanos() / 1e6, evictions(),
+                cachedBytes() / 1048576.0, budgetBytes >> 20);
+    }
+}
@@ -0,0 +1,185 @@
+package game.ui;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+/**
+ * Every asset in one file, written by AssetPacker and read through a
+ * memory-mapped FileChannel: the index is read once when the pack is opened,
+ * so finding a name is a hash lookup rather than a round of File.isFile()
+ * probes, and an entry's bytes are read straight from the mapping, paged in by
+ * the OS as they are touched. Entries are either the image file's own bytes,
+ * decoded with ImageIO as a loose file would be, or pre-decoded pixels, which
+ * are copied into a BufferedImage with no decoding at all. Entries with the
+ * same bytes (the title screen and its copy at the root) are stored once.
+ *
+ * File layout (big-endian): MAGIC, VERSION, entry count, then per entry the
+ * name (u16 length, UTF-8), kind (u8), offset (long), length, width, height
+ * and the SHA-256 of the source file; then the data, each entry's starting on an 8-byte boundary. A RAW entry is
+ * the file as it was; INT_ARGB and INT_RGB are width x height pixels as ints.
+ *
+ * Thread-safe: the mapping is only ever read by absolute index.
+ */
+public final class AssetPack {
+
+    static final int MAGIC = 0x4559504B;   // "EYPK"
+    static final int VERSION = 1;
+    static final byte RAW = 0, INT_ARGB = 1, INT_RGB = 2;
+
+    /** Where an entry's data is and what it holds. */
+    record Entry(byte kind, long offset, int length, int width, int height, byte[] sha256) { }
+
+    private final Path file;
+    private final MappedByteBuffer map;
+    private final Map<String, Entry> index;
+    private final URLStreamHandler handler = new Handler();
+
+    private AssetPack(Path file, MappedByteBuffer map, Map<String, Entry> index) {
+        this.file = file;
+        this.map = map;
+        this.index = index;
+    }
+
+    /** Maps {@code file} and reads its index. */
+    public static AssetPack open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("pack over 2 GB");
+            // the mapping outlives the channel
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                if (map.getInt() != MAGIC) throw new IOException("not an asset pack");
+                int version = map.getInt();
+                if (version != VERSION) throw new IOException("pack version " + version + ", expected " + VERSION);
+                int n = map.getInt();
+                Map<String, Entry> index = new HashMap<>(n * 2);
+                for (int i = 0; i < n; i++) {
+                    byte[] name = new byte[map.getShort() & 0xFFFF];
+                    map.get(name);
+                    byte kind = map.get();
+                    long offset = map.getLong();
+                    int length = map.getInt(), width = map.getInt(), height = map.getInt();
+                    byte[] sha = new byte[32];
+                    map.get(sha);
+                    Entry e = new Entry(kind, offset, length, width, height, sha);
+                    if (e.offset < 0 || e.length < 0 || e.offset + e.length > size)
+                        throw new IOException("entry " + i + " lies outside the pack");
+                    index.put(new String(name, StandardCharsets.UTF_8), e);
+                }
+                return new AssetPack(file, map, index);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("truncated index", e);
+            }
+        }
+    }
+
+    public Path file() { return file; }
+    public int size() { return index.size(); }
+    public boolean contains(String name) { return index.containsKey(name); }
+
+    /** The entry's data, a read-only view into the mapping; null if there is no such entry. */
+    public ByteBuffer bytes(String name) {
+        Entry e = index.get(name);
+        return e == null ? null : map.slice((int) e.offset, e.length).asReadOnlyBuffer();
+    }
+
+    /** SHA-256 of the file the entry was packed from, whatever its kind; null if there is no such entry. */
+    public byte[] sourceHash(String name) {
+        Entry e = index.get(name);
+        return e == null ? null : e.sha256.clone();
+    }
+
+    /** A URL that reads the entry's bytes, for callers that hash or stream assets; null if there is no such entry. */
+    public URL url(String name) {
+        if (!index.containsKey(name)) return null;
+        try {
+            return new URL("eyepack", null, -1, "/" + name, handler);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** The entry as an image, or null if there is no such entry or it does not decode. */
+    public BufferedImage image(String name) throws IOException {
+        Entry e = index.get(name);
+        if (e == null) return null;
+        ByteBuffer data = map.slice((int) e.offset, e.length);
+        if (e.kind == RAW) {
+            // decoded from memory: ImageIO.read(InputStream) would buffer the stream through a temp file;
+            // this ImageIO.read closes the stream itself
+            return ImageIO.read(new MemoryCacheImageInputStream(new BufferInput(data)));
+        }
+        int w = e.width, h = e.height;
+        BufferedImage img = new BufferedImage(w, h, e.kind == INT_RGB ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        int[] px = new int[w * h];
+        data.asIntBuffer().get(px);
+        // copied in rather than written through getData(), which would stop Java2D accelerating the image
+        img.getRaster().setDataElements(0, 0, w, h, px);
+        return img;
+    }
+
+    /** The pack named by -Deye.assets.pack (default assets.pack in the working directory), or null in dev mode. */
+    static AssetPack openDefault() {
+        if (Boolean.getBoolean("eye.assets.dev")) return null;
+        Path file = Path.of(System.getProperty("eye.assets.pack", "assets.pack"));
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.err.println("[AssetPack] Could not open " + file + ", using loose files: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Serves eyepack: URLs from this pack. */
+    private final class Handler extends URLStreamHandler {
+        @Override protected URLConnection openConnection(URL u) throws IOException {
+            ByteBuffer data = bytes(u.getPath().substring(1));
+            if (data == null) throw new IOException("no such entry: " + u);
+            return new URLConnection(u) {
+                @Override public void connect() { }
+                @Override public InputStream getInputStream() { return new BufferInput(data); }
+                @Override public long getContentLengthLong() { return data.remaining(); }
+            };
+        }
+    }
+
+    /** An InputStream over a buffer's remaining bytes. */
+    private static final class BufferInput extends InputStream {
+        private final ByteBuffer buf;
+
+        BufferInput(ByteBuffer buf) { this.buf = buf; }
+
+        @Override public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buf.hasRemaining()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override public int available() { return buf.remaining(); }
+    }
+}
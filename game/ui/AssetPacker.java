@@ -0,0 +1,193 @@
+package game.ui;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Writes an AssetPack of every image under the given paths (by default the
+ * assets directory and the images at the top level), named by their path
+ * relative to the working directory, as AssetCache looks them up. Run it
+ * from the repository root. Files with identical bytes share one entry's
+ * data. With --decoded the pixels are stored instead of the PNG: no decoding
+ * at startup, at about twenty times the size.
+ *
+ * Usage: java game.ui.AssetPacker [--decoded] out.pack [file or directory ...]
+ */
+public final class AssetPacker {
+
+    private static final String[] IMAGE_SUFFIXES = { ".png", ".jpg", ".jpeg", ".gif", ".bmp" };
+
+    private AssetPacker() { }
+
+    /** The data of one or more entries with identical source bytes. */
+    private static final class Blob {
+        final byte kind;
+        final byte[] data;
+        final int width, height;
+        byte[] sha256;                                   // of the source bytes
+        long offset;
+
+        Blob(byte kind, byte[] data, int width, int height) {
+            this.kind = kind;
+            this.data = data;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int a = 0;
+        boolean decoded = a < args.length && args[a].equals("--decoded");
+        if (decoded) a++;
+        if (a >= args.length) {
+            System.err.println("usage: java game.ui.AssetPacker [--decoded] out.pack [file or directory ...]");
+            System.exit(2);
+        }
+        Path out = Path.of(args[a++]);
+        List<Path> roots = new ArrayList<>();
+        for (; a < args.length; a++) roots.add(Path.of(args[a]));
+        if (roots.isEmpty()) {
+            roots.add(Path.of("assets"));
+            try (Stream<Path> top = Files.list(Path.of(""))) {
+                top.filter(AssetPacker::isImage).forEach(roots::add);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        Map<String, Path> files = collect(roots);
+        Map<String, Blob> byHash = new HashMap<>();
+        Map<String, Blob> entries = new TreeMap<>();
+        long sourceBytes = 0;
+        for (Map.Entry<String, Path> f : files.entrySet()) {
+            byte[] raw = Files.readAllBytes(f.getValue());
+            sourceBytes += raw.length;
+            byte[] sha = sha256(raw);
+            String hash = HexFormat.of().formatHex(sha);
+            Blob blob = byHash.get(hash);
+            if (blob == null) {
+                blob = decoded ? decode(f.getValue(), raw) : new Blob(AssetPack.RAW, raw, 0, 0);
+                blob.sha256 = sha;
+                byHash.put(hash, blob);
+            }
+            entries.put(f.getKey(), blob);
+        }
+        long size = write(out, entries);
+        System.out.printf("%s: %d entries (%d distinct) from %.1f MB of files, %.1f MB, %s, in %d ms%n",
+                out, entries.size(), byHash.size(), sourceBytes / 1048576.0, size / 1048576.0,
+                decoded ? "decoded" : "raw", (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    /** Every image under {@code roots}, by its name relative to the working directory. */
+    private static Map<String, Path> collect(List<Path> roots) throws IOException {
+        Map<String, Path> files = new TreeMap<>();
+        for (Path root : roots) {
+            if (!Files.exists(root)) {
+                System.err.println("[AssetPacker] Skipping missing " + root);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(root)) {
+                walk.filter(Files::isRegularFile).filter(AssetPacker::isImage).forEach(p -> {
+                    Path rel = p.isAbsolute() ? Path.of("").toAbsolutePath().relativize(p) : p.normalize();
+                    files.put(rel.toString().replace('\\', '/'), p);
+                });
+            }
+        }
+        return files;
+    }
+
+    private static boolean isImage(Path p) {
+        String n = p.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String s : IMAGE_SUFFIXES)
+            if (n.endsWith(s)) return Files.isRegularFile(p);
+        return false;
+    }
+
+    private static Blob decode(Path file, byte[] raw) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(raw));
+        if (img == null) {
+            System.err.println("[AssetPacker] Not decodable, stored as is: " + file);
+            return new Blob(AssetPack.RAW, raw, 0, 0);
+        }
+        int w = img.getWidth(), h = img.getHeight();
+        boolean alpha = img.getColorModel().hasAlpha();
+        int[] px = img.getRGB(0, 0, w, h, null, 0, w);
+        ByteBuffer buf = ByteBuffer.allocate(px.length * 4);
+        buf.asIntBuffer().put(px);
+        return new Blob(alpha ? AssetPack.INT_ARGB : AssetPack.INT_RGB, buf.array(), w, h);
+    }
+
+    private static long write(Path out, Map<String, Blob> entries) throws IOException {
+        // index first, so the data offsets are known before anything is written
+        List<byte[]> names = new ArrayList<>(entries.size());
+        int indexBytes = 12;
+        for (String name : entries.keySet()) {
+            byte[] b = name.getBytes(StandardCharsets.UTF_8);
+            if (b.length > 0xFFFF) throw new IOException("name too long: " + name);
+            names.add(b);
+            indexBytes += 2 + b.length + 1 + 8 + 4 * 3 + 32;
+        }
+        long pos = indexBytes;
+        List<Blob> blobs = new ArrayList<>();
+        for (Blob blob : entries.values()) {
+            if (blob.offset != 0) continue;                  // already placed for an earlier name
+            pos = (pos + 7) & ~7L;
+            blob.offset = pos;
+            pos += blob.data.length;
+            blobs.add(blob);
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(indexBytes);
+        index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(entries.size());
+        int i = 0;
+        for (Blob blob : entries.values()) {
+            byte[] name = names.get(i++);
+            index.putShort((short) name.length).put(name)
+                 .put(blob.kind).putLong(blob.offset).putInt(blob.data.length).putInt(blob.width).putInt(blob.height)
+                 .put(blob.sha256);
+        }
+        index.flip();
+
+        // write beside the target and move it into place, so a running game never maps half a pack
+        Path abs = out.toAbsolutePath();
+        Files.createDirectories(abs.getParent());
+        Path tmp = abs.resolveSibling(abs.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (index.hasRemaining()) ch.write(index);
+            for (Blob blob : blobs) {
+                ByteBuffer data = ByteBuffer.wrap(blob.data);
+                while (data.hasRemaining()) ch.write(data, blob.offset + data.position());
+            }
+        }
+        Files.move(tmp, abs, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return pos;
+    }
+
+    private static byte[] sha256(byte[] b) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(b);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package game.ui;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+import game.ui.AnimationClock.Animation;
+
+/**
+ * A row of eye slots painted by one component, in place of a button per slot.
+ * Each slot shows one cell of a SpriteAtlas (row: the eye's color, column: the
+ * frame), optionally scaled about its centre, and is either open (clickable,
+ * drawn as is) or closed (drawn from the atlas's greyed twin). Changing a
+ * slot repaints that slot's rectangle only, with no icon swap and no
+ * revalidation, and a paint draws just the slots the clip touches, one
+ * drawImage each, into Swing's own back buffer.
+ *
+ * A slot can also carry a short note, drawn in a band under the cells, and
+ * one slot's note at a time can be highlighted as the one to pick (the eye
+ * advisor).
+ *
+ * Slots are laid out like a one-row GridLayout with {@code gap} between them,
+ * each cell centred in its slot above the note band; a click is the left button pressed and
+ * released over the same open slot, as for a button. EDT only.
+ */
+public final class EyeStrip extends JComponent {
+
+    /** Told on the EDT when an open slot is clicked. */
+    public interface Listener {
+        void slotClicked(int slot);
+    }
+
+    private static final AnimationClock CLOCK = AnimationClock.shared();
+    /** Height of the band the notes are drawn in, under the cells. */
+    private static final int NOTE_HEIGHT = 18;
+    private static final Color HIGHLIGHT = new Color(255, 215, 0);
+
+    private final SpriteAtlas atlas;
+    private final int slots, gap;
+    private final int[] row, col;
+    private final double[] scale;
+    private final boolean[] open;
+    private final Object[] keys;                      // one AnimationClock key per slot
+    private final String[] note;
+    private final Color[] noteColor;
+    private int highlighted = -1;
+    private final Rectangle bounds = new Rectangle();  // scratch for paint and repaint
+    private Listener listener;
+    private int pressed = -1;
+
+    public EyeStrip(SpriteAtlas atlas, int slots, int gap) {
+        this.atlas = atlas;
+        this.slots = slots;
+        this.gap = gap;
+        row = new int[slots];
+        col = new int[slots];
+        scale = new double[slots];
+        Arrays.fill(scale, 1.0);
+        open = new boolean[slots];
+        keys = new Object[slots];
+        for (int i = 0; i < slots; i++) keys[i] = new Object();
+        note = new String[slots];
+        noteColor = new Color[slots];
+        setOpaque(false);
+        Dimension size = new Dimension(slots * atlas.cellWidth() + (slots - 1) * gap, atlas.cellHeight() + NOTE_HEIGHT);
+        setPreferredSize(size);
+        setMinimumSize(size);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override public void mousePressed(MouseEvent e) {
+                pressed = SwingUtilities.isLeftMouseButton(e) ? slotAt(e.getX(), e.getY()) : -1;
+                if (pressed >= 0 && !open[pressed]) pressed = -1;
+            }
+            @Override public void mouseReleased(MouseEvent e) {
+                int slot = pressed;
+                pressed = -1;
+                if (slot >= 0 && SwingUtilities.isLeftMouseButton(e) && slot == slotAt(e.getX(), e.getY())
+                        && open[slot] && listener != null)
+                    listener.slotClicked(slot);
+            }
+        };
+        addMouseListener(mouse);
+    }
+
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    public int slots() { return slots; }
+    public SpriteAtlas atlas() { return atlas; }
+
+    public boolean isOpen(int slot) { return open[slot]; }
+    public int row(int slot) { return row[slot]; }
+    public int col(int slot) { return col[slot]; }
+    public double scale(int slot) { return scale[slot]; }
+
+    /** Opens (clickable, in color) or closes (greyed) the slot. */
+    public void setOpen(int slot, boolean isOpen) {
+        if (open[slot] == isOpen) return;
+        open[slot] = isOpen;
+        if (!isOpen && pressed == slot) pressed = -1;
+        repaintSlot(slot);
+    }
+
+    /** Shows atlas cell (row, col) in the slot. */
+    public void setFrame(int slot, int row, int col) {
+        if (this.row[slot] == row && this.col[slot] == col) return;
+        this.row[slot] = row;
+        this.col[slot] = col;
+        repaintSlot(slot);
+    }
+
+    /** Draws the slot's cell at {@code scale} about its centre, never outside the cell's box. */
+    public void setScale(int slot, double scale) {
+        if (this.scale[slot] == scale) return;
+        this.scale[slot] = scale;
+        repaintSlot(slot);
+    }
+
+    /** Writes {@code text} under the slot in {@code color}; null text clears it. */
+    public void setNote(int slot, String text, Color color) {
+        if (Objects.equals(note[slot], text) && Objects.equals(noteColor[slot], color)) return;
+        note[slot] = text;
+        noteColor[slot] = color;
+        repaintSlot(slot);
+    }
+
+    public String note(int slot) { return note[slot]; }
+
+    /** Draws {@code slot}'s note dark on a gold tag, as the one to pick; -1 for none. */
+    public void setHighlighted(int slot) {
+        if (highlighted == slot) return;
+        int old = highlighted;
+        highlighted = slot;
+        if (old >= 0) repaintSlot(old);
+        if (slot >= 0) repaintSlot(slot);
+    }
+
+    public int highlighted() { return highlighted; }
+
+    /** Runs {@code animation} on the slot through the shared clock, replacing the slot's running one. */
+    public void animate(int slot, Animation animation) {
+        CLOCK.start(keys[slot], animation);
+    }
+
+    /** Stops the slot's animation, leaving the slot as its last frame left it. */
+    public void cancel(int slot) {
+        CLOCK.cancel(keys[slot]);
+    }
+
+    public boolean isAnimating(int slot) { return CLOCK.isAnimating(keys[slot]); }
+
+    /** The slot under (x, y), or -1. */
+    public int slotAt(int x, int y) {
+        for (int i = 0; i < slots; i++)
+            if (slotBounds(i, bounds).contains(x, y)) return i;
+        return -1;
+    }
+
+    /** Slot {@code slot}'s rectangle in this component, written into {@code r}. */
+    public Rectangle slotBounds(int slot, Rectangle r) {
+        int w = Math.max(0, (getWidth() - (slots - 1) * gap) / slots);
+        int x0 = (getWidth() - (w * slots + (slots - 1) * gap)) / 2;  // leftover split either side, as GridLayout does
+        r.setBounds(x0 + slot * (w + gap), 0, w, getHeight());
+        return r;
+    }
+
+    private void repaintSlot(int slot) {
+        slotBounds(slot, bounds);
+        repaint(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        for (int i = 0; i < slots; i++) {
+            slotBounds(i, bounds);
+            if (clip == null || bounds.intersects(clip)) paintSlot(g2, i, bounds);
+        }
+        g2.dispose();
+    }
+
+    private void paintSlot(Graphics2D g, int slot, Rectangle r) {
+        SpriteAtlas from = open[slot] ? atlas : atlas.disabled();
+        int cw = atlas.cellWidth(), ch = atlas.cellHeight();
+        int x = r.x + (r.width - cw) / 2, y = r.y + (r.height - NOTE_HEIGHT - ch) / 2;
+        Rectangle clip = g.getClipBounds();
+        g.clipRect(r.x, r.y, r.width, r.height);
+        if (note[slot] != null) {
+            g.setFont(getFont().deriveFont(Font.BOLD));
+            FontMetrics fm = g.getFontMetrics();
+            int tw = fm.stringWidth(note[slot]), tx = r.x + (r.width - tw) / 2;
+            int band = r.y + r.height - NOTE_HEIGHT;
+            if (slot == highlighted) {
+                g.setColor(HIGHLIGHT);
+                g.fillRoundRect(tx - 6, band + 1, tw + 12, NOTE_HEIGHT - 2, NOTE_HEIGHT / 2, NOTE_HEIGHT / 2);
+                g.setColor(Color.BLACK);
+            } else {
+                g.setColor(noteColor[slot]);
+            }
+            g.drawString(note[slot], tx, band + (NOTE_HEIGHT + fm.getAscent() - fm.getDescent()) / 2);
+        }
+        double s = scale[slot];
+        if (s == 1.0) {
+            from.draw(g, row[slot], col[slot], x, y, x + cw, y + ch, 0, 0, cw, ch);
+        } else if (s < 1.0) {
+            int w = Math.max(1, (int) Math.round(cw * s)), h = Math.max(1, (int) Math.round(ch * s));
+            int dx = x + (cw - w) / 2, dy = y + (ch - h) / 2;
+            from.draw(g, row[slot], col[slot], dx, dy, dx + w, dy + h, 0, 0, cw, ch);
+        } else {
+            // growing draws a centre crop over the whole box, so the eye never spills into its neighbours
+            int sw = (int) Math.round(cw / s), sh = (int) Math.round(ch / s);
+            int sx = (cw - sw) / 2, sy = (ch - sh) / 2;
+            from.draw(g, row[slot], col[slot], x, y, x + cw, y + ch, sx, sy, sx + sw, sy + sh);
+        }
+        g.setClip(clip);
+    }
+}
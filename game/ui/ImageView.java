@@ -0,0 +1,58 @@
+package game.ui;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JComponent;
+
+/**
+ * Shows an image at a target size, centred as a JLabel centres its icon. An
+ * image made for that size is drawn as is; any other, such as the previous
+ * size's while a ResizePipeline builds the new one, is stretched to it with
+ * nearest-neighbour sampling, a preview that costs one drawImage per paint
+ * until the sharp image arrives. EDT only.
+ */
+public final class ImageView extends JComponent {
+
+    private BufferedImage image;
+    private int targetW, targetH;
+
+    /** Shows {@code image} at its own size until a target size is set. */
+    public ImageView(BufferedImage image) {
+        setOpaque(false);
+        setImage(image);
+    }
+
+    public BufferedImage image() { return image; }
+
+    /** Shows {@code image} (null for nothing) at the target size, the image's own size if none was set. */
+    public void setImage(BufferedImage image) {
+        this.image = image;
+        if (image != null && targetW <= 0) {
+            targetW = image.getWidth();
+            targetH = image.getHeight();
+        }
+        repaint();
+    }
+
+    /** Stretches the current image to w x h until setImage hands over one made for it. */
+    public void setTargetSize(int w, int h) {
+        if (w == targetW && h == targetH) return;
+        targetW = w;
+        targetH = h;
+        repaint();
+    }
+
+    /** Whether the image showing was made for the target size, rather than stretched to it. */
+    public boolean isSharp() {
+        return image != null && image.getWidth() == targetW && image.getHeight() == targetH;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (image == null || targetW <= 0 || targetH <= 0) return;
+        int x = getWidth() / 2 - targetW / 2, y = getHeight() / 2 - targetH / 2;
+        if (isSharp()) g.drawImage(image, x, y, null);
+        else g.drawImage(image, x, y, targetW, targetH, null);
+    }
+}
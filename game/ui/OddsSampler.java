@@ -0,0 +1,335 @@
+package game.ui;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import game.core.DiceSource;
+import game.core.EyeBag;
+import game.core.EyePolicy;
+import game.core.GameEngine;
+import game.core.TranspositionTable;
+
+/**
+ * Estimates the user's chances from a position by playing it out many times on
+ * a worker thread: the user spends nothing more, the CPU plays by the policy it
+ * is given, and the dice are fresh each time. start() is called after every
+ * change to the position and supersedes whatever ran before; samples come in
+ * batches, and the estimate so far reaches the EDT at most every PUBLISH_MS
+ * until its 95% margin is under TARGET_MARGIN or MAX_SAMPLES are in. cancel()
+ * stops the job at its next batch, so the Roll button's own work does not
+ * share the core with it.
+ *
+ * Tallies are kept per StateKey, packed into one long of a TranspositionTable,
+ * and a job resumes from the tally it finds: a position seen before (every
+ * game starts in the same one) is published at once and only refined further
+ * if it is not settled yet. A job cancelled half way keeps what it sampled.
+ * The table belongs to the worker thread and is cleared when the CPU's policy
+ * changes, since the tallies were played against the old one.
+ *
+ * Before that, each job rates the user's eyes (see Advice): the position after
+ * spending each kind in the bag is sampled next to the ways of waiting: the
+ * position as it is, and for each kind the same position with that kind spent
+ * at the start of the next round. Each gets a few playouts in turn, for at
+ * most FRAME_NANOS, and whatever is in by
+ * then is published; positions sampled before start from their tallies, so
+ * the advice gets sharper as play comes back to them. Sample i of any
+ * position is played with the dice of seed i, so the positions compared are
+ * played with the same dice as far as their games run alike, and the gains
+ * are far less noisy than the estimates behind them.
+ *
+ * start(), cancel() and the publishers run on the EDT; the policy is called on
+ * the worker thread only and must not touch Swing components.
+ */
+public final class OddsSampler {
+
+    /** A tally of playouts from one position, from the user's side. */
+    public record Estimate(int samples, int wins, int ties) {
+        public double win()  { return samples == 0 ? 0 : (double) wins / samples; }
+        public double tie()  { return samples == 0 ? 0 : (double) ties / samples; }
+        public double loss() { return samples == 0 ? 0 : (double) (samples - wins - ties) / samples; }
+
+        /** Half-width of the 95% confidence interval of the least certain of win, tie and loss. */
+        public double margin() {
+            if (samples == 0) return 1;
+            double p = Math.max(Math.max(spread(win()), spread(tie())), spread(loss()));
+            return 1.96 * Math.sqrt(p / samples);
+        }
+
+        /** Whether sampling more would hardly move it. */
+        public boolean settled() { return samples >= MAX_SAMPLES || margin() <= TARGET_MARGIN; }
+
+        private static double spread(double p) { return p * (1 - p); }
+
+        @Override public String toString() {
+            return String.format("win %.1f%% tie %.1f%% loss %.1f%% ±%.1f (%d samples)",
+                    win() * 100, tie() * 100, loss() * 100, margin() * 100, samples);
+        }
+    }
+
+    /**
+     * What spending each of the user's eyes now would do to the user's win chance
+     * (a tie counting half), next to the best way of waiting: holding every eye
+     * from here on, or holding now and spending one kind next round.
+     * {@code gain[slot]} is NaN for an empty slot. {@code best} is the slot with
+     * the highest gain if that is above 0, else -1 (wait); {@code samples} the
+     * fewest playouts behind any position compared,
+     * {@code complete} whether all of them settled within the frame budget.
+     */
+    public record Advice(double[] gain, int best, int samples, boolean complete) {
+        static final Advice NONE = new Advice(new double[0], -1, 0, true);
+
+        public boolean isEmpty() { return gain.length == 0; }
+
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder("advice");
+            for (int i = 0; i < gain.length; i++)
+                if (!Double.isNaN(gain[i])) sb.append(String.format(" %d:%+.1f%%", i, gain[i] * 100));
+            return sb.append(best < 0 ? ", hold" : ", best " + best)
+                     .append(" (").append(samples).append(complete ? " samples)" : " samples, out of time)").toString();
+        }
+    }
+
+    /** Playouts between cancellation checks. */
+    static final int BATCH = 256;
+    /** Playouts per position per turn while advising. */
+    static final int ADVICE_BATCH = 32;
+    /** Time the advice may take, one frame at 60 Hz. */
+    static final long FRAME_NANOS = 16_000_000L;
+    /** Fewest milliseconds between two estimates sent to the EDT. */
+    static final int PUBLISH_MS = 100;
+    static final double TARGET_MARGIN = 0.005;
+    /** Fits the 21 bits a packed tally gives each count. */
+    static final int MAX_SAMPLES = 1 << 18;
+
+    private static final int COUNT_BITS = 21;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final GameEngine.EffectKind[] KINDS = GameEngine.EffectKind.values();
+
+    private final Consumer<Estimate> publisher;
+    private final Consumer<Advice> advisor;
+    private final ExecutorService worker;
+    private final TranspositionTable tallies = new TranspositionTable(1 << 14);   // worker thread only
+    private final TranspositionTable[] deferred = new TranspositionTable[KINDS.length];  // per kind spent next round
+    private final GameEngine engine;                                              // worker thread only
+    private final DiceSource dice;
+    private final Random rng;
+    private final long seed;
+    private EyePolicy tallied;                                                    // what the tallies were played against
+
+    private volatile long generation;                 // the latest start's or cancel's; older jobs stop
+    private Future<?> queued;
+
+    private volatile long jobs, samples, cached, nanos, advised, adviceNanos;
+
+    /** {@code publisher} gets the estimates, {@code advisor} one Advice per position (empty when there are no eyes to rate). */
+    public OddsSampler(Consumer<Estimate> publisher, Consumer<Advice> advisor, long seed) {
+        this.publisher = publisher;
+        this.advisor = advisor;
+        this.seed = seed;
+        dice = DiceSource.splitMix(seed);
+        engine = new GameEngine("You", "CPU", null, dice, seed);
+        rng = new Random(seed);
+        for (int k = 0; k < deferred.length; k++) deferred[k] = new TranspositionTable(1 << 12);
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "odds-sampler");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);     // the EDT keeps animating
+            return t;
+        });
+    }
+
+    /** Estimates the position {@code key} (a GameEngine snapshot) with the CPU playing {@code cpu}. */
+    public void start(long key, EyePolicy cpu) {
+        long gen = ++generation;
+        if (queued != null) queued.cancel(false);
+        queued = worker.submit(() -> run(gen, key, cpu));
+    }
+
+    /** Stops the running job at its next batch; nothing more is published until the next start(). */
+    public void cancel() {
+        generation++;
+        if (queued != null) queued.cancel(false);
+    }
+
+    private void run(long gen, long key, EyePolicy cpu) {
+        if (gen != generation) return;
+        if (cpu != tallied) {
+            tallies.clear();
+            for (TranspositionTable t : deferred) t.clear();
+            tallied = cpu;
+        }
+        jobs++;
+        if (tallies.contains(key)) cached++;
+        advise(gen, key, cpu);
+        long t0 = System.nanoTime();
+        Estimate e = unpack(tallies.get(key, 0L));
+        long published = t0 - PUBLISH_MS * 1_000_000L;  // the first batch goes out at once
+        try {
+            if (e.samples() > 0) {
+                publish(gen, e);
+                published = t0;
+            }
+            while (!e.settled() && gen == generation) {
+                e = sample(key, null, cpu, e, BATCH);
+                long now = System.nanoTime();
+                if (e.settled() || now - published >= PUBLISH_MS * 1_000_000L) {
+                    publish(gen, e);
+                    published = now;
+                }
+            }
+        } finally {
+            tallies.put(key, pack(e));
+            nanos += System.nanoTime() - t0;
+        }
+    }
+
+    /** Rates spending each kind in the user's bag now against waiting, within FRAME_NANOS, and publishes it. */
+    private void advise(long gen, long key, EyePolicy cpu) {
+        GameEngine g = engine;
+        g.restore(key);
+        if (g.isEndgame() || g.user().eyes().isEmpty()) {
+            publishAdvice(gen, Advice.NONE);
+            return;
+        }
+        long t0 = System.nanoTime(), deadline = t0 + FRAME_NANOS;
+        // of n kinds: position 0 holds, position k + 1 has spent kind k, position n + k + 1 spends
+        // kind k next round (no estimate where the bag has none)
+        int n = KINDS.length;
+        long[] keys = new long[2 * n + 1];
+        Estimate[] est = new Estimate[keys.length];
+        keys[0] = key;
+        est[0] = unpack(tallies.get(key, 0L));
+        for (GameEngine.EffectKind k : KINDS) {
+            if (g.user().eyes().slotOf(k) < 0) continue;
+            int now = k.ordinal() + 1, later = n + k.ordinal() + 1;
+            g.useEyeOfKind(g.user(), k);
+            keys[now] = g.snapshot();
+            est[now] = unpack(tallies.get(keys[now], 0L));
+            g.restore(key);
+            keys[later] = key;
+            est[later] = unpack(deferred[k.ordinal()].get(key, 0L));
+        }
+
+        boolean complete;
+        do {
+            complete = true;
+            for (int i = 0; i < keys.length && gen == generation; i++) {
+                if (est[i] == null || est[i].settled()) continue;
+                complete = false;
+                est[i] = sample(keys[i], i > n ? KINDS[i - n - 1] : null, cpu, est[i], ADVICE_BATCH);
+                if (System.nanoTime() >= deadline) break;
+            }
+        } while (!complete && gen == generation && System.nanoTime() < deadline);
+        for (int i = 0; i < keys.length; i++) {
+            if (est[i] == null) continue;
+            if (i > n) deferred[i - n - 1].put(keys[i], pack(est[i]));
+            else tallies.put(keys[i], pack(est[i]));
+        }
+        if (gen != generation) return;
+
+        double wait = equity(est[0]);
+        for (int i = n + 1; i < keys.length; i++)
+            if (est[i] != null) wait = Math.max(wait, equity(est[i]));
+
+        g.restore(key);
+        double[] gain = new double[EyeBag.SLOTS];
+        int best = -1, fewest = Integer.MAX_VALUE;
+        double bestGain = 0;
+        for (int slot = 0; slot < gain.length; slot++) {
+            GameEngine.EffectKind k = g.user().eyes().kindAt(slot);
+            if (k == null) { gain[slot] = Double.NaN; continue; }
+            Estimate spent = est[k.ordinal() + 1];
+            gain[slot] = equity(spent) - wait;
+            fewest = Math.min(fewest, spent.samples());
+            if (gain[slot] > bestGain) { bestGain = gain[slot]; best = slot; }
+        }
+        for (int i = n + 1; i < keys.length; i++)
+            if (est[i] != null) fewest = Math.min(fewest, est[i].samples());
+        fewest = Math.min(fewest, est[0].samples());
+        complete = true;
+        for (Estimate e : est) complete &= e == null || e.settled();
+        advised++;
+        adviceNanos += System.nanoTime() - t0;
+        publishAdvice(gen, new Advice(gain, best, fewest, complete));
+    }
+
+    private static double equity(Estimate e) { return e.win() + e.tie() / 2; }
+
+    /**
+     * {@code e} with {@code count} more playouts of {@code key}, the user spending
+     * {@code later} at the start of the next round if it is not null; playout i
+     * always deals the dice of seed i.
+     */
+    private Estimate sample(long key, GameEngine.EffectKind later, EyePolicy cpu, Estimate e, int count) {
+        int n = e.samples(), w = e.wins(), t = e.ties();
+        for (int i = 0; i < count; i++, n++) {
+            long s = DiceSource.mix64(seed + n);
+            dice.reseed(s);
+            rng.setSeed(s);
+            GameEngine.Outcome o = playOut(key, later, cpu);
+            if (o == GameEngine.Outcome.USER_WINS) w++;
+            else if (o == GameEngine.Outcome.TIE) t++;
+        }
+        samples += count;
+        return new Estimate(n, w, t);
+    }
+
+    private GameEngine.Outcome playOut(long key, GameEngine.EffectKind later, EyePolicy cpu) {
+        GameEngine g = engine;
+        g.restore(key);
+        int round = g.roundIndex();
+        while (g.outcome() == null) {
+            if (!g.isEndgame()) {
+                if (later != null && g.roundIndex() != round) {
+                    if (g.user().eyes().slotOf(later) >= 0) g.useEyeOfKind(g.user(), later);
+                    later = null;
+                }
+                int slot = cpu.choose(g, g.cpu(), rng);
+                if (slot >= 0) g.useEyeInSlot(g.cpu(), slot);
+            }
+            g.playRound();
+        }
+        return g.outcome();
+    }
+
+    private void publish(long gen, Estimate e) {
+        SwingUtilities.invokeLater(() -> {
+            if (gen == generation) publisher.accept(e);
+        });
+    }
+
+    private void publishAdvice(long gen, Advice a) {
+        SwingUtilities.invokeLater(() -> {
+            if (gen == generation) advisor.accept(a);
+        });
+    }
+
+    private static long pack(Estimate e) {
+        return ((long) e.samples() << (2 * COUNT_BITS)) | ((long) e.wins() << COUNT_BITS) | e.ties();
+    }
+
+    private static Estimate unpack(long v) {
+        return new Estimate((int) (v >>> (2 * COUNT_BITS)), (int) ((v >>> COUNT_BITS) & COUNT_MASK), (int) (v & COUNT_MASK));
+    }
+
+    // ----- Stats -----
+
+    public long jobs()    { return jobs; }
+    public long samples() { return samples; }
+    /** Jobs that found a tally for their position. */
+    public long cached()  { return cached; }
+    public double samplesPerSecond() { return nanos + adviceNanos == 0 ? 0 : samples * 1e9 / (nanos + adviceNanos); }
+    /** Positions whose eyes were rated. */
+    public long advised() { return advised; }
+    public double avgAdviceNanos() { return advised == 0 ? 0 : (double) adviceNanos / advised; }
+
+    @Override public String toString() {
+        return String.format("odds: %d jobs (%d cached), %d samples, %.0fk samples/s; advice for %d, %.1f ms avg",
+                jobs(), cached(), samples(), samplesPerSecond() / 1e3, advised(), avgAdviceNanos() / 1e6);
+    }
+}
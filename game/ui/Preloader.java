@@ -0,0 +1,87 @@
+package game.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Decodes (and optionally pre-scales) a list of images, plus any other
+ * startup work, on a small pool of daemon threads so the screens find them in
+ * AssetCache and ImageScaler instead of decoding on the EDT. Add the work, then
+ * start() once; progress is reported on the EDT after every finished task. A
+ * name that does not exist still counts as done, so the splash always reaches 100%.
+ */
+public final class Preloader {
+
+    /** Called on the EDT: {@code done} of {@code total} finished, {@code name} the latest. */
+    public interface Progress {
+        void update(int done, int total, String name);
+    }
+
+    private record Task(String name, int w, int h, Runnable work) { }
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final AtomicInteger done = new AtomicInteger();
+    private final int threads;
+
+    public Preloader() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public Preloader(int threads) { this.threads = threads; }
+
+    /** Decode {@code names} into AssetCache. */
+    public Preloader images(String... names) {
+        for (String n : names) tasks.add(new Task(n, 0, 0, null));
+        return this;
+    }
+
+    /** Decode {@code name} and keep only its w x h copy, in ImageScaler. */
+    public Preloader scaled(String name, int w, int h) {
+        tasks.add(new Task(name, w, h, null));
+        return this;
+    }
+
+    /** Any other startup work, shown as {@code label} in the progress. */
+    public Preloader task(String label, Runnable work) {
+        tasks.add(new Task(label, 0, 0, work));
+        return this;
+    }
+
+    public int total() { return tasks.size(); }
+    public int threads() { return threads; }
+
+    /** Runs every task; the future completes (off the EDT) once all of them have. */
+    public CompletableFuture<Void> start(Progress progress) {
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "asset-preload-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);        // the EDT keeps painting the splash
+            return t;
+        });
+        int total = tasks.size();
+        CompletableFuture<?>[] all = new CompletableFuture<?>[total];
+        for (int i = 0; i < total; i++) {
+            Task task = tasks.get(i);
+            all[i] = CompletableFuture.runAsync(() -> run(task), pool).whenComplete((v, e) -> {
+                int d = done.incrementAndGet();
+                if (progress != null) SwingUtilities.invokeLater(() -> progress.update(d, total, task.name));
+            });
+        }
+        return CompletableFuture.allOf(all)
+                .handle((v, e) -> null)                     // a bad image must not hold up startup
+                .thenRun(pool::shutdown);
+    }
+
+    private static void run(Task task) {
+        if (task.work != null) task.work.run();
+        else if (task.w > 0) ImageScaler.shared().scaled(task.name, task.w, task.h);
+        else AssetCache.shared().image(task.name);
+    }
+}
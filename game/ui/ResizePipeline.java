@@ -0,0 +1,113 @@
+package game.ui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Rebuilds whatever depends on a component's size off the EDT. request() is
+ * called for every resize event; once none has come for the debounce delay,
+ * the latest size is built on a worker thread and the result handed to the
+ * EDT in one call. Every request supersedes the ones before it: a job still
+ * queued is cancelled, and one already running is finished but dropped, as
+ * is a result that a newer request overtook on its way to the EDT. So a drag
+ * builds nothing until it pauses, and only the size it stopped at is shown.
+ * A build that throws is reported on System.err and publishes nothing.
+ *
+ * request() and the publisher run on the EDT; the builder must not touch
+ * Swing components.
+ */
+public final class ResizePipeline<T> {
+
+    /** Builds the result for a w x h component, off the EDT. */
+    public interface Builder<T> {
+        T build(int w, int h);
+    }
+
+    private final String name;
+    private final Builder<T> builder;
+    private final Consumer<T> publisher;
+    private final Timer debounce;
+    private final ExecutorService worker;
+
+    private volatile long generation;                 // the latest request's; older jobs are stale
+    private int w, h;
+    private Future<?> queued;
+
+    private long requests, builds, stale, buildNanos;
+
+    public ResizePipeline(String name, int debounceMs, Builder<T> builder, Consumer<T> publisher) {
+        this.name = name;
+        this.builder = builder;
+        this.publisher = publisher;
+        debounce = new Timer(debounceMs, e -> submit());
+        debounce.setRepeats(false);
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);     // the EDT keeps painting the preview
+            return t;
+        });
+    }
+
+    /** The component is now w x h; builds for it once resizing settles. */
+    public void request(int w, int h) {
+        requests++;
+        this.w = w;
+        this.h = h;
+        generation++;
+        if (queued != null) queued.cancel(false);
+        debounce.restart();
+    }
+
+    /** Builds for the last requested size now, without waiting out the debounce delay. */
+    public void flush() {
+        if (debounce.isRunning()) {
+            debounce.stop();
+            submit();
+        }
+    }
+
+    private void submit() {
+        long gen = generation;
+        int bw = w, bh = h;
+        queued = worker.submit(() -> {
+            if (gen != generation) return;
+            long t0 = System.nanoTime();
+            T result;
+            try {
+                result = builder.build(bw, bh);
+            } catch (RuntimeException | OutOfMemoryError e) {
+                // the last published result stays up; a later request tries again
+                System.err.println("[" + name + "] Build for " + bw + "x" + bh + " failed: " + e);
+                e.printStackTrace();
+                return;
+            }
+            long took = System.nanoTime() - t0;
+            SwingUtilities.invokeLater(() -> {
+                builds++;
+                buildNanos += took;
+                if (gen != generation) { stale++; return; }
+                publisher.accept(result);
+            });
+        });
+    }
+
+    // ----- Stats (read on the EDT) -----
+
+    public long requests()   { return requests; }
+    /** Results built, published or not. */
+    public long builds()     { return builds; }
+    /** Built results dropped because a newer size was asked for meanwhile. */
+    public long stale()      { return stale; }
+    public double avgBuildNanos() { return builds == 0 ? 0 : (double) buildNanos / builds; }
+
+    @Override public String toString() {
+        return String.format("resize: %d requests, %d builds (%d stale), %.1f ms avg build",
+                requests(), builds(), stale(), avgBuildNanos() / 1e6);
+    }
+}
@@ -0,0 +1,222 @@
+package game.ui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * The game log as a list model over a fixed-capacity ring of entries, for a
+ * JList: memory stays bounded however long the session runs, and only the
+ * visible rows are ever laid out or painted. add() only queues; everything
+ * added before the EDT next gets to its queue (a whole round's worth of
+ * listener callbacks) goes into the ring as one batch, one removal and one
+ * insertion event. Entries pushed out of the ring, or dropped by clear(),
+ * are appended to a rolling text file when one is given, so a kiosk keeps
+ * its history on disk rather than in memory. The file is written on a
+ * background thread, so a batch costs the EDT no I/O.
+ *
+ * EDT only, like the list that shows it.
+ */
+public final class RingLog extends AbstractListModel<RingLog.Entry> {
+
+    /** One log line: when it was added, the round it belongs to, and what it says. */
+    public record Entry(long time, int round, String text) {
+        @Override public String toString() { return text; }
+    }
+
+    private final Entry[] ring;
+    private int head, size;                          // oldest entry at ring[head]
+    private final List<Entry> pending = new ArrayList<>();
+    private boolean flushQueued;
+    private Spill spill;                             // null: evicted entries are dropped
+    private final ExecutorService writer;            // null when there is no spill file
+    private volatile boolean spillFailed;
+
+    /**
+     * A log of at most {@code capacity} entries; evicted ones go to
+     * {@code spillFile} (rolled over at {@code spillBytes}, keeping
+     * {@code spillKeep} old files) unless it is null.
+     */
+    public RingLog(int capacity, Path spillFile, long spillBytes, int spillKeep) {
+        ring = new Entry[Math.max(1, capacity)];
+        if (spillFile == null) {
+            writer = null;
+            return;
+        }
+        spill = new Spill(spillFile, spillBytes, spillKeep);
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "log-spill");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);     // the EDT keeps painting the list
+            return t;
+        });
+    }
+
+    public int capacity() { return ring.length; }
+
+    /** Queues a line; it shows with the rest of its batch once the EDT is idle. */
+    public void add(int round, String text) {
+        pending.add(new Entry(System.currentTimeMillis(), round, text));
+        if (!flushQueued) {
+            flushQueued = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /** Moves the queued lines into the ring now, as one model update. */
+    public void flush() {
+        flushQueued = false;
+        int n = pending.size();
+        if (n == 0) return;
+        int cap = ring.length;
+        // a batch longer than the ring spills its own head straight away
+        int skip = Math.max(0, n - cap);
+        if (skip > 0) spill(new ArrayList<>(pending.subList(0, skip)));
+        int incoming = n - skip;
+        int evict = Math.max(0, size + incoming - cap);
+        if (evict > 0) {
+            List<Entry> out = new ArrayList<>(evict);
+            for (int i = 0; i < evict; i++) {
+                out.add(ring[head]);
+                ring[head] = null;
+                head = (head + 1) % cap;
+            }
+            size -= evict;
+            spill(out);
+            fireIntervalRemoved(this, 0, evict - 1);
+        }
+        int first = size;
+        for (int i = skip; i < n; i++) ring[(head + size++) % cap] = pending.get(i);
+        pending.clear();
+        fireIntervalAdded(this, first, size - 1);
+    }
+
+    /** Empties the log, queued lines included; they still go to the spill file. */
+    public void clear() {
+        flushQueued = false;
+        List<Entry> out = new ArrayList<>(size + pending.size());
+        for (int i = 0; i < size; i++) out.add(ring[(head + i) % ring.length]);
+        out.addAll(pending);
+        pending.clear();
+        spill(out);
+        int was = size;
+        Arrays.fill(ring, null);
+        head = size = 0;
+        if (was > 0) fireIntervalRemoved(this, 0, was - 1);
+    }
+
+    @Override public int getSize() { return size; }
+
+    @Override public Entry getElementAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return ring[(head + index) % ring.length];
+    }
+
+    /**
+     * Writes whatever is still queued for the spill file and closes it; the
+     * log keeps working in memory. Waits up to a second for the writer.
+     */
+    public void close() {
+        if (writer == null || writer.isShutdown()) return;
+        Spill s = spill;
+        spill = null;
+        writer.execute(s::close);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Hands {@code out} to the writer; the caller must not reuse the list. */
+    private void spill(List<Entry> out) {
+        if (spill == null || out.isEmpty()) return;
+        if (spillFailed) {
+            spill = null;
+            return;
+        }
+        Spill s = spill;
+        writer.execute(() -> {
+            if (spillFailed) return;
+            try {
+                s.write(out);
+            } catch (IOException e) {
+                // best effort, like the journal: after an error the log only lives in memory
+                System.err.println("[RingLog] Spill to " + s.file + " stopped: " + e.getMessage());
+                s.close();
+                spillFailed = true;
+            }
+        });
+    }
+
+    /** Appends lines to {@code file} (on the writer thread only), renaming it to file.1 (file.1 to file.2, ...) once it passes maxBytes. */
+    private static final class Spill {
+        final Path file;
+        private final long maxBytes;
+        private final int keep;
+        private BufferedWriter out;
+        private long bytes;
+
+        Spill(Path file, long maxBytes, int keep) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+            this.keep = keep;
+        }
+
+        void write(List<Entry> entries) throws IOException {
+            if (out == null) open();
+            StringBuilder sb = new StringBuilder();
+            for (Entry e : entries)
+                sb.append(Instant.ofEpochMilli(e.time())).append(" r").append(e.round()).append(' ')
+                  .append(e.text()).append('\n');
+            String s = sb.toString();
+            out.write(s);
+            out.flush();
+            bytes += s.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes >= maxBytes) roll();
+        }
+
+        private void open() throws IOException {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            bytes = Files.size(file);
+        }
+
+        private void roll() throws IOException {
+            close();
+            for (int i = keep - 1; i >= 1; i--) {
+                Path from = file.resolveSibling(file.getFileName() + "." + i);
+                if (Files.exists(from))
+                    Files.move(from, file.resolveSibling(file.getFileName() + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (keep > 0) Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            else Files.delete(file);
+            open();
+        }
+
+        void close() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package game.ui;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.swing.GrayFilter;
+import javax.swing.Icon;
+
+/**
+ * A grid of equally sized sprites packed into one image, handed out as Icons
+ * that blit their cell straight from the shared image. The atlas is painted
+ * once by a Painter and saved to a cache file whose header carries a key (a
+ * hash of the source images and of whatever recipe the painter follows);
+ * later runs whose key matches read the file back in one go instead of
+ * painting. A missing, stale or damaged file is simply painted over.
+ *
+ * File layout (big-endian): MAGIC, VERSION, 32-byte key, rows, cols, cell
+ * width, cell height, deflated length, then the deflated ARGB_PRE pixels.
+ */
+public final class SpriteAtlas {
+
+    /** Paints one cell; {@code g} is translated and clipped to the cell. */
+    public interface Painter {
+        void paint(Graphics2D g, int row, int col);
+    }
+
+    private static final int MAGIC = 0x45594154;   // "EYAT"
+    private static final int VERSION = 1;
+    private static final int HEADER = 4 + 4 + 32 + 4 * 4 + 4;
+
+    private final BufferedImage image;
+    private final int rows, cols, cellW, cellH;
+    private final Icon[] icons;
+    private final boolean fromCache;
+    private SpriteAtlas disabled;                     // built on first use
+
+    private SpriteAtlas(BufferedImage image, int rows, int cols, int cellW, int cellH, boolean fromCache) {
+        this.image = image;
+        this.rows = rows;
+        this.cols = cols;
+        this.cellW = cellW;
+        this.cellH = cellH;
+        this.fromCache = fromCache;
+        this.icons = new Icon[rows * cols];
+        for (int r = 0; r < rows; r++)
+            for (int c = 0; c < cols; c++)
+                icons[r * cols + c] = new Cell(r * cols + c, c * cellW, r * cellH);
+    }
+
+    /** Reads the atlas from {@code file} if it was saved under {@code key}, else paints it and saves it there. */
+    public static SpriteAtlas loadOrPaint(Path file, byte[] key, int rows, int cols, int cellW, int cellH, Painter painter) {
+        BufferedImage img = read(file, key, rows, cols, cellW, cellH);
+        if (img != null) return new SpriteAtlas(img, rows, cols, cellW, cellH, true);
+
+        img = new BufferedImage(cols * cellW, rows * cellH, BufferedImage.TYPE_INT_ARGB_PRE);
+        for (int r = 0; r < rows; r++)
+            for (int c = 0; c < cols; c++) {
+                Graphics2D g = img.createGraphics();
+                g.translate(c * cellW, r * cellH);
+                g.clipRect(0, 0, cellW, cellH);
+                painter.paint(g, r, c);
+                g.dispose();
+            }
+        try {
+            write(file, key, rows, cols, cellW, cellH, img);
+        } catch (IOException e) {
+            System.err.println("[SpriteAtlas] Could not save " + file + ": " + e.getMessage());
+        }
+        return new SpriteAtlas(img, rows, cols, cellW, cellH, false);
+    }
+
+    /** SHA-256 over {@code recipe} and then each named asset's content hash (a missing one hashes as its name). */
+    public static byte[] key(String recipe, String... assetNames) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        md.update(recipe.getBytes(StandardCharsets.UTF_8));
+        for (String name : assetNames) {
+            md.update((byte) 0);
+            md.update(name.getBytes(StandardCharsets.UTF_8));
+            // the file's hash rather than its bytes, so loose files and either kind of pack agree
+            byte[] hash = AssetCache.shared().contentHash(name);
+            if (hash != null) md.update(hash);
+        }
+        return md.digest();
+    }
+
+    public Icon icon(int row, int col) { return icons[row * cols + col]; }
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int cellWidth() { return cellW; }
+    public int cellHeight() { return cellH; }
+    public BufferedImage image() { return image; }
+    /** True if this run read the atlas from its cache file. */
+    public boolean fromCache() { return fromCache; }
+
+    /**
+     * The greyed twin of one of this atlas's icons, as the look and feel greys
+     * a disabled ImageIcon (it cannot do that for these icons itself); null for
+     * any other icon. For a button's getDisabledIcon.
+     */
+    public Icon disabledIcon(Icon icon) {
+        if (!(icon instanceof Cell cell) || cell.owner() != this) return null;
+        return disabled().icons[cell.index];
+    }
+
+    /** This atlas with every cell greyed the way the look and feel greys a disabled icon; built on first use. */
+    public synchronized SpriteAtlas disabled() {
+        if (disabled == null) {
+            BufferedImage grey = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = grey.createGraphics();
+            g.drawImage(GrayFilter.createDisabledImage(image), 0, 0, null);
+            g.dispose();
+            disabled = new SpriteAtlas(grey, rows, cols, cellW, cellH, false);
+        }
+        return disabled;
+    }
+
+    /**
+     * Draws the part of a cell from (sx1, sy1) to (sx2, sy2), in the cell's own
+     * coordinates, into the destination rectangle: a scaled or cropped blit that
+     * allocates nothing, for sprites animated between repaints.
+     */
+    public void draw(Graphics g, int row, int col, int dx1, int dy1, int dx2, int dy2,
+                     int sx1, int sy1, int sx2, int sy2) {
+        int ox = col * cellW, oy = row * cellH;
+        g.drawImage(image, dx1, dy1, dx2, dy2, ox + sx1, oy + sy1, ox + sx2, oy + sy2, null);
+    }
+
+    /** One cell, drawn as a sub-image blit from the shared atlas. */
+    private final class Cell implements Icon {
+        private final int index, sx, sy;
+        Cell(int index, int sx, int sy) { this.index = index; this.sx = sx; this.sy = sy; }
+
+        SpriteAtlas owner() { return SpriteAtlas.this; }
+
+        @Override public void paintIcon(Component c, Graphics g, int x, int y) {
+            g.drawImage(image, x, y, x + cellW, y + cellH, sx, sy, sx + cellW, sy + cellH, null);
+        }
+        @Override public int getIconWidth()  { return cellW; }
+        @Override public int getIconHeight() { return cellH; }
+    }
+
+    // ----- Cache file -----
+
+    private static BufferedImage read(Path file, byte[] key, int rows, int cols, int cellW, int cellH) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) return null;
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+            buf.flip();
+            byte[] fileKey = new byte[32];
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+            buf.get(fileKey);
+            if (!Arrays.equals(fileKey, key)
+                    || buf.getInt() != rows || buf.getInt() != cols || buf.getInt() != cellW || buf.getInt() != cellH)
+                return null;
+            int packed = buf.getInt();
+            if (packed != buf.remaining()) return null;
+
+            int w = cols * cellW, h = rows * cellH;
+            int[] px = new int[w * h];
+            byte[] raw = new byte[px.length * 4];
+            int n = 0;
+            Inflater inf = new Inflater();
+            try {
+                inf.setInput(buf.array(), buf.position(), packed);
+                while (n < raw.length) {
+                    int k = inf.inflate(raw, n, raw.length - n);
+                    if (k == 0 && (inf.finished() || inf.needsInput() || inf.needsDictionary())) break;
+                    n += k;
+                }
+            } finally {
+                inf.end();
+            }
+            if (n != raw.length) return null;
+            ByteBuffer.wrap(raw).asIntBuffer().get(px);
+            // copied in rather than written through getData(), which would stop Java2D accelerating the image
+            BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            img.getRaster().setDataElements(0, 0, w, h, px);
+            return img;
+        } catch (IOException | DataFormatException e) {
+            return null;
+        }
+    }
+
+    private static void write(Path file, byte[] key, int rows, int cols, int cellW, int cellH,
+                              BufferedImage img) throws IOException {
+        int[] px = (int[]) img.getRaster().getDataElements(0, 0, img.getWidth(), img.getHeight(), null);
+        ByteBuffer raw = ByteBuffer.allocate(px.length * 4);
+        raw.asIntBuffer().put(px);
+
+        Deflater def = new Deflater(Deflater.BEST_SPEED);
+        byte[] packed = new byte[raw.capacity() + 1024];
+        int len;
+        try {
+            def.setInput(raw.array());
+            def.finish();
+            len = 0;
+            while (!def.finished()) {
+                if (len == packed.length) packed = Arrays.copyOf(packed, packed.length * 2);
+                len += def.deflate(packed, len, packed.length - len);
+            }
+        } finally {
+            def.end();
+        }
+
+        ByteBuffer head = ByteBuffer.allocate(HEADER);
+        head.putInt(MAGIC).putInt(VERSION).put(key)
+            .putInt(rows).putInt(cols).putInt(cellW).putInt(cellH).putInt(len).flip();
+
+        // write beside the target and move it into place, so a reader never sees half a file
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer body = ByteBuffer.wrap(packed, 0, len);
+            while (head.hasRemaining()) ch.write(head);
+            while (body.hasRemaining()) ch.write(body);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}